@@ -0,0 +1,46 @@
+package com.example;
+
+import javafx.application.Platform;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Deterministic synthetic data shared by the benchmarks
+final class BenchmarkData {
+    static final String[] STATUSES = {"open", "active", "completed", "cancelled"};
+    static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Dare> dares(int count, int users, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Dare> dares = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String a = "user" + random.nextInt(users);
+            String b = "user" + random.nextInt(users);
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            dares.add(new Dare("dare-" + i, "Dare number " + i + " between " + a + " and " + b, a, status,
+                new String[]{a, b}, EPOCH.plusMinutes(random.nextInt(1_000_000)), 5 + random.nextInt(50),
+                "completed".equals(status) ? (random.nextBoolean() ? a : b) : null));
+        }
+        return dares;
+    }
+
+    // DareCardCell and the pages need a running Glass platform; the benchmark builds run headless Monocle
+    static void startToolkit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyStarted) {
+            started.countDown();
+        }
+        if (!started.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("JavaFX toolkit did not start; is Monocle on the classpath?");
+        }
+    }
+}
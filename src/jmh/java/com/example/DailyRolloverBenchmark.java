@@ -0,0 +1,70 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// One full daily rollover over a user-state file: copy, chunked streak and post-limit updates with
+// per-chunk checkpoints, reward delta file and the final swap. 40% of users logged in on the day
+// (three quarters of them extending a streak) and 10% posted.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DailyRolloverBenchmark {
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+
+    @Param({"10000000"})
+    public int users;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path dir;
+    private Path original;
+    private Path state;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("rollover");
+        original = dir.resolve("users.orig");
+        state = dir.resolve("users.dat");
+        int day = (int) DAY.toEpochDay();
+        SplittableRandom random = new SplittableRandom(42);
+        DailyRollover.write(original, users, i -> {
+            int k = random.nextInt(10);
+            return new DailyRollover.UserState("user-" + i, k < 4 ? day : day - 1 - random.nextInt(30),
+                k < 3 ? day - 1 : day - 5, random.nextInt(20), 25, random.nextInt(500), k == 9 ? 3 : 0, day);
+        });
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() throws IOException {
+        Files.copy(original, state, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        pool.shutdown();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public DailyRollover.Result rollover() throws IOException {
+        return DailyRollover.run(state, DAY, dir.resolve("rewards.tsv"), pool);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator for DareApiServer: N keep-alive connections, one virtual thread each, issuing requests
+// back to back for five seconds against a server in its own process (so client and server do not share
+// a file-descriptor limit). Prints throughput and p50/p99/p99.9 latency per run. The mix is 70%
+// participant feed pages, 20% pair lists and 10% conditional GETs that should come back 304.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class DareApiLoadBenchmark {
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Param({"1000", "10000"})
+    public int connections;
+
+    @Param({"100000"})
+    public int dares;
+
+    private Process server;
+    private int port;
+    private LongAdder requests;
+    private LongAdder errors;
+    private List<long[]> latencies;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        server = new ProcessBuilder(java, "-Xmx2g", "-Ddarecards.mockCount=" + dares,
+            "-cp", System.getProperty("java.class.path"), "com.example.DareApiServer", "0")
+            .redirectErrorStream(true).start();
+        BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null && !line.startsWith("Dare API listening")) {
+            System.out.println("  server: " + line);
+        }
+        if (line == null) throw new IllegalStateException("API server exited before listening");
+        port = Integer.parseInt(line.substring(line.lastIndexOf(':') + 1));
+        Thread.ofVirtual().start(() -> out.lines().forEach(l -> System.out.println("  server: " + l)));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws InterruptedException {
+        server.destroy();
+        server.waitFor(10, TimeUnit.SECONDS);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        requests = new LongAdder();
+        errors = new LongAdder();
+        latencies = new ArrayList<>();
+    }
+
+    @TearDown(Level.Invocation)
+    public void report() {
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            System.out.printf("%n  no successful requests, %d errors%n", errors.sum());
+            return;
+        }
+        System.out.printf("%n  %d connections: %.0f req/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms, %d errors%n",
+            connections, requests.sum() / (RUN_NANOS / 1e9), at(all, 0.50), at(all, 0.99), at(all, 0.999),
+            all[all.length - 1] / 1e6, errors.sum());
+    }
+
+    private static double at(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+    }
+
+    @Benchmark
+    public long load() throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(connections);
+        long[] start = new long[1];
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                long[] samples = new long[1024];
+                int id = c;
+                clients.execute(() -> {
+                    long[] recorded = run(id, samples, connected, go, start);
+                    synchronized (latencies) {
+                        latencies.add(recorded);
+                    }
+                });
+            }
+            // Open every connection before the clock starts, so the run measures requests, not the accept storm
+            connected.await();
+            start[0] = System.nanoTime();
+            go.countDown();
+        }
+        return requests.sum();
+    }
+
+    private long[] run(int id, long[] samples, CountDownLatch connected, CountDownLatch go, long[] start) {
+        SplittableRandom random = new SplittableRandom(id);
+        int count = 0;
+        Socket socket = null;
+        String etag = null;
+        try {
+            socket = connect();
+            connected.countDown();
+            go.await();
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 16384);
+            OutputStream out = socket.getOutputStream();
+            while (System.nanoTime() - start[0] < RUN_NANOS) {
+                int kind = random.nextInt(10);
+                String user = "user" + random.nextInt(12);
+                String path = kind < 7 ? "/dares?status=completed&participant=" + user + "&limit=20"
+                    : kind < 9 ? "/users/" + user + "/pairs" : "/dares?limit=20";
+                String conditional = kind == 9 && etag != null ? "If-None-Match: " + etag + "\r\n" : "";
+                long t0 = System.nanoTime();
+                out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n" + conditional + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                String tag = readResponse(in, kind == 9 && etag != null ? 304 : 200);
+                if (kind == 9) etag = tag;
+                if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+                samples[count++] = System.nanoTime() - t0;
+                requests.increment();
+            }
+        } catch (IOException e) {
+            errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (connected.getCount() > 0 && socket == null) connected.countDown();
+            try {
+                if (socket != null) socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress("localhost", port), 30_000);
+        return socket;
+    }
+
+    // Reads one response (Content-Length, chunked or bodiless) and returns its ETag
+    private static String readResponse(InputStream in, int expectedStatus) throws IOException {
+        String status = line(in);
+        if (!status.startsWith("HTTP/1.1 " + expectedStatus)) throw new IOException("unexpected " + status);
+        long length = -1;
+        boolean chunked = false;
+        String etag = null;
+        String header;
+        while (!(header = line(in)).isEmpty()) {
+            int colon = header.indexOf(':');
+            String name = header.substring(0, colon).trim().toLowerCase();
+            String value = header.substring(colon + 1).trim();
+            switch (name) {
+                case "content-length" -> length = Long.parseLong(value);
+                case "transfer-encoding" -> chunked = value.equalsIgnoreCase("chunked");
+                case "etag" -> etag = value;
+                default -> { }
+            }
+        }
+        if (expectedStatus == 304) return etag;
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(line(in).trim(), 16)) > 0) {
+                skip(in, size);
+                line(in);
+            }
+            line(in);
+        } else if (length > 0) {
+            skip(in, length);
+        }
+        return etag;
+    }
+
+    private static String line(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) throw new EOFException();
+            if (c != '\r') sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private static void skip(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Batches of 1M dares as BSON against the same documents as JSON with Jackson's streaming API:
+// encoding the batch, scanning it for the stakes of open dares, and turning it back into Dares.
+//
+// Setup first checks DareBson against the js-bson build in lib/ (through test-dare-bson.js): edge-case
+// dares and the achievement mocks plus a slice of the batch must serialize to the same bytes in both,
+// and the JS bytes must read back to the same objects. Skipped with a note when node is not installed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DareBsonBenchmark {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Param({"1000000"})
+    public int dares;
+
+    private List<Dare> list;
+    private DareBson.Pool pool;
+    private ByteBuffer bson;
+    private byte[] json;
+    private ByteArrayOutputStream jsonOut;
+    private final DareBson.DareDocument doc = new DareBson.DareDocument();
+
+    @Setup(Level.Trial)
+    public void write() throws IOException, InterruptedException {
+        list = BenchmarkData.dares(dares, 10_000, 24);
+        crossCheck(list.subList(0, Math.min(1000, list.size())));
+        pool = new DareBson.Pool(2);
+        bson = DareBson.writeDares(list, pool);
+        jsonOut = new ByteArrayOutputStream(bson.limit());
+        writeJson(list, jsonOut);
+        json = jsonOut.toByteArray();
+        System.out.printf("%n  %d dares: BSON %d MB, JSON %d MB%n", dares, bson.limit() >> 20, json.length >> 20);
+    }
+
+    @Benchmark
+    public int bsonEncode() {
+        ByteBuffer buf = DareBson.writeDares(list, pool);
+        int size = buf.limit();
+        pool.release(buf);
+        return size;
+    }
+
+    @Benchmark
+    public int jsonEncode() throws IOException {
+        jsonOut.reset();
+        writeJson(list, jsonOut);
+        return jsonOut.size();
+    }
+
+    // Total stake of open dares, reading only the two fields it needs
+    @Benchmark
+    public long bsonScan() {
+        long sum = 0;
+        for (int p = 0; p < bson.limit(); p += doc.size()) {
+            doc.wrap(bson, p);
+            if (doc.statusIs("open")) sum += doc.entryStake();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long jsonScan() throws IOException {
+        long sum = 0;
+        try (JsonParser in = JSON.createParser(json)) {
+            in.nextToken();
+            while (in.nextToken() == JsonToken.START_OBJECT) {
+                boolean open = false;
+                int stake = 0;
+                while (in.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = in.currentName();
+                    in.nextToken();
+                    if (field.equals("status")) open = "open".equals(in.getText());
+                    else if (field.equals("entry_stake")) stake = in.getIntValue();
+                    else in.skipChildren();
+                }
+                if (open) sum += stake;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int bsonToDares() {
+        int chars = 0;
+        for (int p = 0; p < bson.limit(); p += doc.size()) chars += doc.wrap(bson, p).toDare().title.length();
+        return chars;
+    }
+
+    @Benchmark
+    public int jsonToDares() throws IOException {
+        int chars = 0;
+        List<String> participants = new ArrayList<>();
+        try (JsonParser in = JSON.createParser(json)) {
+            in.nextToken();
+            while (in.nextToken() == JsonToken.START_OBJECT) {
+                String id = null, title = null, creatorId = null, status = null, winnerId = null;
+                LocalDateTime deadline = null;
+                int stake = 0;
+                participants.clear();
+                while (in.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = in.currentName();
+                    JsonToken token = in.nextToken();
+                    switch (field) {
+                        case "dare_id" -> id = in.getText();
+                        case "title" -> title = in.getText();
+                        case "creator_id" -> creatorId = in.getText();
+                        case "status" -> status = in.getText();
+                        case "participants" -> {
+                            while (in.nextToken() != JsonToken.END_ARRAY) participants.add(in.getText());
+                        }
+                        case "deadline" -> deadline = token == JsonToken.VALUE_NULL ? null
+                            : LocalDateTime.ofEpochSecond(Math.floorDiv(in.getLongValue(), 1000),
+                                (int) Math.floorMod(in.getLongValue(), 1000) * 1_000_000, ZoneOffset.UTC);
+                        case "entry_stake" -> stake = in.getIntValue();
+                        case "winner_id" -> winnerId = token == JsonToken.VALUE_NULL ? null : in.getText();
+                        default -> in.skipChildren();
+                    }
+                }
+                Dare dare = new Dare(id, title, creatorId, status, participants.toArray(new String[0]), deadline, stake, winnerId);
+                chars += dare.title.length();
+            }
+        }
+        return chars;
+    }
+
+    private static void writeJson(List<Dare> dares, OutputStream target) throws IOException {
+        try (JsonGenerator out = JSON.createGenerator(target)) {
+            out.writeStartArray();
+            for (Dare dare : dares) writeJson(dare, out);
+            out.writeEndArray();
+        }
+    }
+
+    // Same field names, order and nulls as the BSON documents
+    private static void writeJson(Dare dare, JsonGenerator out) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("dare_id", dare.id);
+        out.writeStringField("title", dare.title);
+        out.writeStringField("creator_id", dare.creatorId);
+        out.writeStringField("status", dare.status);
+        out.writeArrayFieldStart("participants");
+        for (String p : dare.participants) out.writeString(p);
+        out.writeEndArray();
+        if (dare.deadline != null) out.writeNumberField("deadline", dare.deadline.toInstant(ZoneOffset.UTC).toEpochMilli());
+        else out.writeNullField("deadline");
+        out.writeNumberField("entry_stake", dare.entryStake);
+        out.writeStringField("winner_id", dare.winnerId);
+        out.writeEndObject();
+    }
+
+    private static void writeJson(AchievementPage.Achievement a, JsonGenerator out) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("title", a.title);
+        out.writeStringField("reward", a.reward);
+        out.writeStringField("reward_color", a.rewardColor);
+        out.writeStringField("proof_image", a.proofImage);
+        out.writeStringField("timestamp", a.timestamp);
+        out.writeStringField("type", a.type);
+        out.writeArrayFieldStart("avatars");
+        for (String avatar : a.avatars) out.writeString(avatar);
+        out.writeEndArray();
+        out.writeEndObject();
+    }
+
+    private static void crossCheck(List<Dare> sample) throws IOException, InterruptedException {
+        Path script = Path.of("test-dare-bson.js");
+        if (!Files.isRegularFile(script) || !Files.isRegularFile(Path.of("lib/bson.cjs"))) {
+            System.out.println("\n  Skipping the js-bson cross-check: run from the repository root");
+            return;
+        }
+        List<Dare> dares = new ArrayList<>(List.of(
+            new Dare("d-empty", "", "", "open", new String[0], null, 0, null),
+            new Dare("d-unicode", "Sprung über 🔥 die Brücke — 挑战", "uid_ü", "completed", new String[] {"ana", "李", "😀😀"},
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000), -25, "李"),
+            new Dare("d-many", "Eleven people", "uid_1", "active",
+                new String[] {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l"},
+                LocalDateTime.of(2025, 10, 24, 18, 0), Integer.MAX_VALUE, "")));
+        dares.addAll(sample);
+        List<AchievementPage.Achievement> achievements = AchievementPage.getAchievements();
+
+        Path input = Files.createTempFile("dare-bson", ".json");
+        try {
+            try (JsonGenerator out = JSON.createGenerator(Files.newOutputStream(input))) {
+                out.writeStartArray();
+                for (Dare dare : dares) writeJson(dare, out);
+                for (AchievementPage.Achievement a : achievements) writeJson(a, out);
+                out.writeEndArray();
+            }
+            Process node;
+            try {
+                node = new ProcessBuilder("node", script.toString(), input.toString()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            } catch (IOException e) {
+                System.out.println("\n  Skipping the js-bson cross-check: " + e.getMessage());
+                return;
+            }
+            byte[] expected = node.getInputStream().readAllBytes();
+            if (node.waitFor() != 0) throw new IllegalStateException("test-dare-bson.js failed");
+
+            ByteBuffer actual = ByteBuffer.allocate(expected.length);
+            for (Dare dare : dares) DareBson.write(dare, actual);
+            for (AchievementPage.Achievement a : achievements) DareBson.write(a, actual);
+            if (actual.hasRemaining() || !Arrays.equals(actual.array(), expected)) {
+                throw new IllegalStateException("DareBson output differs from js-bson at byte " + Arrays.mismatch(actual.array(), expected));
+            }
+
+            ByteBuffer js = ByteBuffer.wrap(expected);
+            DareBson.DareDocument dareDoc = new DareBson.DareDocument();
+            int p = 0;
+            for (Dare dare : dares) {
+                Dare back = dareDoc.wrap(js, p).toDare();
+                p += dareDoc.size();
+                if (!Arrays.equals(DareBson.toBytes(back), DareBson.toBytes(dare))) {
+                    throw new IllegalStateException("Dare " + dare.id + " did not read back from js-bson");
+                }
+            }
+            DareBson.AchievementDocument achievementDoc = new DareBson.AchievementDocument();
+            for (AchievementPage.Achievement a : achievements) {
+                AchievementPage.Achievement back = achievementDoc.wrap(js, p).toAchievement();
+                p += achievementDoc.size();
+                if (!Arrays.equals(DareBson.toBytes(back), DareBson.toBytes(a))) {
+                    throw new IllegalStateException("Achievement " + a.title + " did not read back from js-bson");
+                }
+            }
+            System.out.printf("%n  js-bson cross-check: %d documents, %d bytes identical%n", dares.size() + achievements.size(), expected.length);
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+}
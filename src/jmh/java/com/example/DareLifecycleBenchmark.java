@@ -0,0 +1,79 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Accept/complete storms against the dare lifecycle: every invocation creates a dare, fires 16
+// competing accepts at it (one wins, the rest are rejected), then the winner's proof and the
+// creator's completion, and waits until all 19 commands are answered. Four threads storm at once.
+// maxBatch=1 forces the log once per transition, i.e. without group commit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class DareLifecycleBenchmark {
+    private static final int ACCEPTERS = 16;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    @Param({"1", "4096"})
+    public int maxBatch;
+
+    private Path dir;
+    private DareLifecycle lifecycle;
+
+    @State(Scope.Thread)
+    public static class Storm {
+        private static int threads;
+        private final String prefix;
+        private long next;
+
+        public Storm() {
+            synchronized (Storm.class) {
+                prefix = "t" + threads++ + "-";
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        dir = Files.createTempDirectory("lifecycle");
+        lifecycle = new DareLifecycle(dir, shards, maxBatch, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        lifecycle.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCEPTERS + 3)
+    public DareLifecycle.Outcome storm(Storm storm) {
+        String dareId = storm.prefix + storm.next++;
+        CompletableFuture<?>[] answers = new CompletableFuture<?>[ACCEPTERS + 3];
+        answers[0] = lifecycle.submit(new DareLifecycle.Create(dareId, "creator", 10));
+        for (int i = 0; i < ACCEPTERS; i++) {
+            answers[i + 1] = lifecycle.submit(new DareLifecycle.Accept(dareId, "user" + i));
+        }
+        // Commands for one dare reach its shard in submission order, so user0 is the accepter
+        answers[ACCEPTERS + 1] = lifecycle.submit(new DareLifecycle.SubmitProof(dareId, "user0", "proof.jpg"));
+        CompletableFuture<DareLifecycle.Outcome> completed =
+            lifecycle.submit(new DareLifecycle.Complete(dareId, "creator", "user0"));
+        answers[ACCEPTERS + 2] = completed;
+        CompletableFuture.allOf(answers).join();
+        return completed.join();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Indexed DareStore pages against the linear stream filter DareService used to do
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DareQueryBenchmark {
+    private static final int PAGE = 50;
+
+    @Param({"10000", "100000"})
+    public int dares;
+
+    private List<Dare> list;
+    private DareStore store;
+    private Dare probe;
+    private int next;
+
+    @Setup
+    public void setup() {
+        list = BenchmarkData.dares(dares, 1000, 42);
+        store = new DareStore();
+        store.putAll(list);
+        probe = list.get(list.size() / 2);
+    }
+
+    private String user() {
+        return "user" + (next++ % 1000);
+    }
+
+    @Benchmark
+    public int completedForUserIndexed() {
+        return store.byStatusAndParticipant("completed", user(), null, PAGE).items().size();
+    }
+
+    @Benchmark
+    public int completedForUserLinear() {
+        String user = user();
+        List<Dare> matches = new ArrayList<>();
+        for (Dare dare : list) {
+            if ("completed".equals(dare.status) && Arrays.asList(dare.participants).contains(user)) matches.add(dare);
+        }
+        // newest first
+        return matches.subList(Math.max(0, matches.size() - PAGE), matches.size()).size();
+    }
+
+    @Benchmark
+    public int allCompletedIndexed() {
+        int count = 0;
+        String cursor = null;
+        do {
+            DareStore.Page<Dare> page = store.byStatus("completed", cursor, PAGE);
+            count += page.items().size();
+            cursor = page.nextCursor();
+        } while (cursor != null && count < 10 * PAGE);
+        return count;
+    }
+
+    @Benchmark
+    public boolean isParticipantIndexed() {
+        return store.isParticipant(probe, probe.winnerId);
+    }
+
+    @Benchmark
+    public boolean isParticipantScan() {
+        return probe.winnerId != null && Arrays.asList(probe.participants).contains(probe.winnerId);
+    }
+}
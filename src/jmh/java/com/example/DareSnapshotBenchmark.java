@@ -0,0 +1,133 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Cold start from the columnar snapshot against parsing the same dares from JSON with Jackson's
+// streaming parser, the cheapest JSON baseline there is. Setup first checks that write -> open ->
+// toDare keeps every field, for edge-case dares and for the whole generated batch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DareSnapshotBenchmark {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Param({"100000", "1000000"})
+    public int dares;
+
+    private Path snapshot;
+    private Path json;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        List<Dare> list = BenchmarkData.dares(dares, 10_000, 3);
+        snapshot = Files.createTempFile("dares", ".snap");
+        json = Files.createTempFile("dares", ".json");
+        checkRoundTrip(List.of(
+            new Dare("d-empty", "", null, "open", new String[0], null, 0, null),
+            new Dare("d-unicode", "Sprung über 🔥 die Brücke — 挑战", "uid_ü", "completed", new String[]{"ana", "李", "😀"},
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000), -25, "李"),
+            new Dare("d-status", "Custom status", "uid_1", "disputed", new String[]{"uid_1", "uid_1"},
+                LocalDateTime.of(2025, 10, 24, 18, 0), Integer.MAX_VALUE, ""),
+            new Dare("d-null-title", null, "uid_1", "open", new String[0], null, 1, null),
+            new Dare("d-null-status", "No status", "uid_1", null, new String[0], null, 1, null),
+            new Dare("d-null-both", null, null, null, new String[]{"uid_1"}, null, 0, null)));
+        DareSnapshot.write(snapshot, list);
+        checkRoundTrip(DareSnapshot.open(snapshot), list);
+        try (JsonGenerator out = JSON.createGenerator(Files.newBufferedWriter(json))) {
+            out.writeStartArray();
+            for (Dare dare : list) {
+                out.writeStartObject();
+                out.writeStringField("id", dare.id);
+                out.writeStringField("title", dare.title);
+                out.writeStringField("creatorId", dare.creatorId);
+                out.writeStringField("status", dare.status);
+                out.writeArrayFieldStart("participants");
+                for (String p : dare.participants) out.writeString(p);
+                out.writeEndArray();
+                if (dare.deadline != null) out.writeNumberField("deadline", dare.deadline.toInstant(ZoneOffset.UTC).toEpochMilli());
+                out.writeNumberField("entryStake", dare.entryStake);
+                if (dare.winnerId != null) out.writeStringField("winnerId", dare.winnerId);
+                out.writeEndObject();
+            }
+            out.writeEndArray();
+        }
+    }
+
+    private static void checkRoundTrip(List<Dare> dares) throws IOException {
+        Path file = Files.createTempFile("dares-check", ".snap");
+        try {
+            DareSnapshot.write(file, dares);
+            checkRoundTrip(DareSnapshot.open(file), dares);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void checkRoundTrip(DareSnapshot snap, List<Dare> dares) {
+        if (snap.size() != dares.size()) throw new IllegalStateException(snap.size() + " dares read back of " + dares.size());
+        for (int i = 0; i < dares.size(); i++) {
+            Dare expected = dares.get(i), actual = snap.toDare(i);
+            if (!Objects.equals(actual.id, expected.id) || !Objects.equals(actual.title, expected.title)
+                    || !Objects.equals(actual.creatorId, expected.creatorId) || !Objects.equals(actual.status, expected.status)
+                    || !Arrays.equals(actual.participants, expected.participants) || !Objects.equals(actual.deadline, expected.deadline)
+                    || actual.entryStake != expected.entryStake || !Objects.equals(actual.winnerId, expected.winnerId)) {
+                throw new IllegalStateException("Dare " + expected.id + " did not survive the snapshot round trip");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(json);
+    }
+
+    // Open and touch every row's hot columns, which is what a feed needs to rank dares
+    @Benchmark
+    public long snapshotScan() throws IOException {
+        DareSnapshot snap = DareSnapshot.open(snapshot);
+        long sum = 0;
+        for (int i = 0; i < snap.size(); i++) {
+            sum += snap.statusCode(i) + snap.deadlineMillis(i) + snap.entryStake(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int snapshotToDares() throws IOException {
+        DareSnapshot snap = DareSnapshot.open(snapshot);
+        int chars = 0;
+        for (int i = 0; i < snap.size(); i++) chars += snap.toDare(i).title.length();
+        return chars;
+    }
+
+    @Benchmark
+    public long jacksonStreaming() throws IOException {
+        long sum = 0;
+        try (JsonParser in = JSON.createParser(json.toFile())) {
+            JsonToken token;
+            while ((token = in.nextToken()) != null) {
+                if (token == JsonToken.VALUE_NUMBER_INT) sum += in.getLongValue();
+                else if (token == JsonToken.VALUE_STRING) sum += in.getTextLength();
+            }
+        }
+        return sum;
+    }
+}
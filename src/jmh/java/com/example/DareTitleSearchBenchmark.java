@@ -0,0 +1,49 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Title search over an index of generated dares whose titles reuse a small vocabulary, so common
+// words have long posting lists and many titles are near-duplicates of each other. Queries cover
+// single words, word prefixes, infixes, two-word conjunctions and a miss.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DareTitleSearchBenchmark {
+    private static final String[] SUBJECTS = {"The Kings", "The Lakers", "Bitcoin", "Ethereum", "My cousin", "The Bulls",
+        "Tesla stock", "Our team", "Jake", "The weather"};
+    private static final String[] VERBS = {"will be better than", "will not reach", "will beat", "can't outrun",
+        "will eat more tacos than", "will win against", "will double", "won't finish before"};
+    private static final String[] OBJECTS = {"the Bulls this season", "$110,000", "$5,000 by Friday", "the Celtics",
+        "my dog", "the marathon record", "100 pushups", "Sarah in chess"};
+
+    @Param({"1000000"})
+    public int dares;
+
+    @Param({"bitcoin", "lak", "itco", "kings bulls", "reach 11", "zzzz"})
+    public String query;
+
+    private DareTitleIndex index;
+
+    @Setup(Level.Trial)
+    public void build() {
+        index = new DareTitleIndex();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < dares; i++) {
+            String title = SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + VERBS[random.nextInt(VERBS.length)] + " "
+                + OBJECTS[random.nextInt(OBJECTS.length)] + (random.nextInt(3) == 0 ? "" : " #" + random.nextInt(100_000));
+            index.put(new Dare("dare-" + i, title, "user" + i % 1000, "open", null, null, 5, null));
+        }
+    }
+
+    @Benchmark
+    public List<DareTitleIndex.Group> search() {
+        return index.search(query, 20);
+    }
+}
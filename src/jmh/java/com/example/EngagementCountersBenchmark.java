@@ -0,0 +1,124 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Eight threads hammering a few hot posts with views, likes, comments, shares and ignored
+// self-likes, with a 5 ms background flush into a RewardLedger. Every iteration switches to fresh
+// posts so the milestones are crossed again under contention. Tear-down doubles as the stress check:
+// it fails the run unless the journal holds exactly one credit per post and crossed milestone, and
+// the flushed view deltas add up to the post totals.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class EngagementCountersBenchmark {
+    @Param({"1", "4"})
+    public int hotPosts;
+
+    private Path journal;
+    private RewardLedger ledger;
+    private EngagementCounters counters;
+    private ScheduledExecutorService flusher;
+    private final Map<String, Long> flushedViews = new HashMap<>();
+    private final List<String> allPosts = new ArrayList<>();
+    private volatile String[] posts;
+    private int generation;
+
+    @State(Scope.Thread)
+    public static class Engager {
+        private static int threads;
+        private final String userId;
+        private int next;
+
+        public Engager() {
+            synchronized (Engager.class) {
+                userId = "user" + threads++;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        journal = Files.createTempFile("engagement", ".tsv");
+        ledger = new RewardLedger(journal);
+        counters = new EngagementCounters(ledger, deltas -> {
+            synchronized (flushedViews) {
+                for (EngagementCounters.Delta delta : deltas) flushedViews.merge(delta.postId(), delta.views(), Long::sum);
+            }
+        });
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        counters.start(flusher, Duration.ofMillis(5));
+    }
+
+    @Setup(Level.Iteration)
+    public void freshPosts() {
+        String[] next = new String[hotPosts];
+        for (int i = 0; i < hotPosts; i++) {
+            next[i] = "post-" + generation + "-" + i;
+            allPosts.add(next[i]);
+        }
+        generation++;
+        posts = next;
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        counters.flush();
+        ledger.close();
+
+        Map<String, Integer> credited = new HashMap<>();
+        for (String line : Files.readAllLines(journal)) {
+            String[] f = line.split("\t", -1);
+            if (f[2].equals("milestone")) credited.merge(f[1] + " " + f[3], 1, Integer::sum);
+        }
+        Files.delete(journal);
+        int expected = 0;
+        for (String post : allPosts) {
+            long views = counters.views(post);
+            if (flushedViews.getOrDefault(post, 0L) != views) {
+                throw new IllegalStateException(post + ": flushed " + flushedViews.get(post) + " views of " + views);
+            }
+            for (long milestone : RewardsEngine.RewardConfig.DEFAULT.milestones().keySet()) {
+                if (views < milestone) continue;
+                expected++;
+                Integer times = credited.get(post + " " + milestone + "_views");
+                if (times == null || times != 1) {
+                    throw new IllegalStateException(post + " credited " + times + " times for " + milestone + " views");
+                }
+            }
+        }
+        if (credited.size() != expected || counters.milestonesAwarded() != expected) {
+            throw new IllegalStateException(counters.milestonesAwarded() + " milestones awarded, expected " + expected);
+        }
+    }
+
+    @Benchmark
+    public void engage(Engager engager) {
+        String[] hot = posts;
+        int i = engager.next++;
+        String post = hot[i % hot.length];
+        switch (i & 7) {
+            case 5 -> counters.engage(post, "author", engager.userId, "like");
+            case 6 -> counters.engage(post, "author", engager.userId, (i & 8) == 0 ? "comment" : "share");
+            case 7 -> counters.engage(post, "author", "author", "like");
+            default -> counters.view(post, "author");
+        }
+    }
+}
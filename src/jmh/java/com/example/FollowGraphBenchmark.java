@@ -0,0 +1,93 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Suggestions over 10M follows among 1M users. Both ends of an edge are skewed towards low ids
+// (r.nextInt(r.nextInt(n) + 1)), so a few accounts follow and are followed by many. 2M completed dares
+// feed the partner graph. Setup also times saving and reloading the binary graph file.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FollowGraphBenchmark {
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"10000000"})
+    public int edges;
+
+    private String[] names;
+    private FollowGraph graph;
+    private Path file;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        UserIds ids = new UserIds();
+        names = new String[users];
+        for (int i = 0; i < users; i++) names[i] = "user" + i;
+        for (String name : names) ids.intern(name);
+        SplittableRandom r = new SplittableRandom(22);
+        int[] followers = new int[edges], followed = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            followers[i] = r.nextInt(r.nextInt(users) + 1);
+            followed[i] = r.nextInt(r.nextInt(users) + 1);
+        }
+        long start = System.nanoTime();
+        graph = FollowGraph.build(ids, followers, followed, edges);
+        long built = System.nanoTime();
+
+        file = Files.createTempFile("follows", ".bin");
+        graph.save(file);
+        long saved = System.nanoTime();
+        FollowGraph reloaded = FollowGraph.load(file, new UserIds());
+        long loaded = System.nanoTime();
+        System.out.printf("%n  %d edges: build %d ms, save %d ms, file %d MB, load %d ms%n", reloaded.edgeCount(),
+            (built - start) / 1_000_000, (saved - built) / 1_000_000, Files.size(file) >> 20, (loaded - saved) / 1_000_000);
+
+        PairStatsAggregator pairs = new PairStatsAggregator(ids);
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 2_000_000; i++) {
+            pairs.onDareCompleted(names[r.nextInt(r.nextInt(users) + 1)], names[r.nextInt(users)], day);
+        }
+        graph.loadDarePartners(pairs);
+        random = new SplittableRandom(8);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int friendsOfFriends() {
+        return graph.friendsOfFriends(names[random.nextInt(users)], 20).size();
+    }
+
+    // The busiest accounts, where the walk is split across the pool
+    @Benchmark
+    public int friendsOfFriendsHub() {
+        return graph.friendsOfFriends(names[random.nextInt(100)], 20).size();
+    }
+
+    @Benchmark
+    public int darePartners() {
+        return graph.darePartnerSuggestions(names[random.nextInt(users)], 20).size();
+    }
+
+    // Overlay edits, including the compactions they trigger
+    @Benchmark
+    public boolean followUnfollow() {
+        String a = names[random.nextInt(users)], b = names[random.nextInt(users)];
+        return graph.follow(a, b) ? graph.unfollow(a, b) : graph.unfollow(a, b) && graph.follow(a, b);
+    }
+}
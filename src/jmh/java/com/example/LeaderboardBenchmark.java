@@ -0,0 +1,58 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Dare-completion ingestion and rank queries; the update target is 100k dares/s
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LeaderboardBenchmark {
+
+    @Param({"100000"})
+    public int players;
+
+    private Leaderboard leaderboard;
+    private String[] ids;
+    private SplittableRandom random;
+    private long dare;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        ids = new String[players];
+        for (int i = 0; i < players; i++) ids[i] = "user" + i;
+        random = new SplittableRandom(1);
+        leaderboard = new Leaderboard();
+        // Everyone on the board before measuring
+        for (int i = 0; i < players; i++) {
+            leaderboard.onDareCompleted("seed-" + i, ids[i], new String[]{ids[i], ids[(i + 1) % players]}, random.nextInt(50));
+        }
+    }
+
+    @Benchmark
+    public boolean completeDare() {
+        String winner = ids[random.nextInt(players)];
+        String loser = ids[random.nextInt(players)];
+        return leaderboard.onDareCompleted(Long.toString(dare++), winner, new String[]{winner, loser}, random.nextInt(50));
+    }
+
+    @Benchmark
+    public int rankOf() {
+        return leaderboard.rankOf(ids[random.nextInt(players)]);
+    }
+
+    @Benchmark
+    public Object aroundUser() {
+        return leaderboard.around(ids[random.nextInt(players)], 5);
+    }
+
+    @Benchmark
+    public Object top10() {
+        return leaderboard.top(10);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example;
+
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Status-color lookup and model construction: the per-card work outside the scene graph
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    private final Dare[] dares = new Dare[BenchmarkData.STATUSES.length + 1];
+    private int next;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        // the cached lookup lives in DareCardCell, whose static effects need the toolkit
+        BenchmarkData.startToolkit();
+        for (int i = 0; i < BenchmarkData.STATUSES.length; i++) {
+            dares[i] = new Dare("d" + i, "t", "u", BenchmarkData.STATUSES[i], new String[]{"a", "b"}, null, 5, null);
+        }
+        dares[dares.length - 1] = new Dare("dx", "t", "u", "expired", new String[]{"a"}, null, 5, null);
+    }
+
+    private Dare dare() {
+        return dares[next++ % dares.length];
+    }
+
+    @Benchmark
+    public String statusColor() {
+        return dare().getStatusColor();
+    }
+
+    @Benchmark
+    public Color statusColorParsed() {
+        return Color.web(dare().getStatusColor());
+    }
+
+    @Benchmark
+    public Color statusColorCached() {
+        return DareCardCell.color(dare().getStatusColor());
+    }
+
+    @Benchmark
+    public Object dareConstruction() {
+        return new Dare("dare-1", "The Kings will be better than the Bulls this season", "user1", "completed",
+            new String[]{"user1", "user2"}, BenchmarkData.EPOCH, 20, "user1");
+    }
+
+    @Benchmark
+    public Object achievementConstruction() {
+        return new AchievementPage.Achievement("Won $20 Blackjack Dare", "+15", "#00D4AA",
+            "https://via.placeholder.com/200x100?text=Blackjack+Proof",
+            "03:08 PM EDT, Oct 17, 2025", "win", Arrays.asList(null, null, null));
+    }
+}
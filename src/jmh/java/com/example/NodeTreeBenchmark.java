@@ -0,0 +1,56 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Node-tree construction for N dare cards and for the achievement page. Needs a Glass platform:
+// the benchmark builds run it on headless Monocle (-Dglass.platform=Monocle -Dmonocle.platform=Headless).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeTreeBenchmark {
+
+    @Param({"10", "500"})
+    public int cards;
+
+    private List<Dare> dares;
+
+    @Setup(Level.Trial)
+    public void startToolkit() throws InterruptedException {
+        BenchmarkData.startToolkit();
+        dares = BenchmarkData.dares(cards, 100, 7);
+    }
+
+    @Benchmark
+    public int dareCards() {
+        int nodes = 0;
+        for (Dare dare : dares) {
+            DareCardCell cell = new DareCardCell();
+            cell.updateItem(dare, false);
+            nodes += cell.getChildrenUnmodifiable().size();
+        }
+        return nodes;
+    }
+
+    // What a virtualized feed pays when scrolling: rebinding one recycled cell per dare
+    @Benchmark
+    public int dareCardsRecycled() {
+        DareCardCell cell = new DareCardCell();
+        int bound = 0;
+        for (Dare dare : dares) {
+            cell.updateItem(dare, false);
+            bound++;
+        }
+        return bound;
+    }
+
+    @Benchmark
+    public Object achievementPage() {
+        return new AchievementPage().getView();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Load test for dare-invite fan-out: offers invites at a fixed rate for two seconds against stub push
+// and SMTP sinks with realistic round-trip times and a 1% transient failure rate, then prints the
+// enqueue-to-delivery p50/p99 per channel. Sending at a fixed rate rather than flat out keeps queueing
+// from hiding the dispatcher's own latency.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class NotificationDispatchBenchmark {
+    private static final Duration LOAD = Duration.ofSeconds(2);
+
+    @Param({"1000", "20000"})
+    public int invitesPerSecond;
+
+    private NotificationDispatcher dispatcher;
+    private StubSink<NotificationDispatcher.PushMessage> push;
+    private StubSink<NotificationDispatcher.MailMessage> smtp;
+
+    @Setup(Level.Invocation)
+    public void start() {
+        // Firestore batch write ~8ms, FCM sendEach ~25ms + 20us/message, pipelined SMTP session ~15ms + 0.5ms/message
+        push = new StubSink<>(25_000, 20);
+        smtp = new StubSink<>(15_000, 500);
+        dispatcher = new NotificationDispatcher(new StubDirectory(), new StubSink<>(8_000, 5), push, smtp);
+    }
+
+    @TearDown(Level.Invocation)
+    public void report() throws InterruptedException {
+        dispatcher.close();
+        for (NotificationDispatcher.Channel channel : NotificationDispatcher.Channel.values()) {
+            NotificationDispatcher.ChannelStats s = dispatcher.stats(channel);
+            System.out.printf("%n  %-5s delivered %d, failed %d, retries %d, p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+                channel, s.delivered(), s.failed(), s.retries(), s.p50Micros() / 1000.0, s.p99Micros() / 1000.0,
+                s.maxMicros() / 1000.0);
+        }
+        System.out.printf("%n  directory lookups %d, push batches %d, smtp sessions %d%n",
+            dispatcher.directoryLookups(), push.calls.sum(), smtp.calls.sum());
+    }
+
+    @Benchmark
+    public int offerLoad() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int total = (int) (invitesPerSecond * LOAD.toSeconds());
+        long interval = 1_000_000_000L / invitesPerSecond;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            // A few hundred active challengers, so the user cache has something to collapse
+            String challenger = "user" + random.nextInt(300);
+            dispatcher.submit(new NotificationDispatcher.DareCreated("dare-" + i, "Dare number " + i, challenger,
+                "user" + random.nextInt(50_000), BenchmarkData.EPOCH));
+        }
+        return total;
+    }
+
+    static final class StubSink<T> implements NotificationDispatcher.Sink<T> {
+        final LongAdder calls = new LongAdder();
+        private final long baseMicros;
+        private final long perMessageMicros;
+
+        StubSink(long baseMicros, long perMessageMicros) {
+            this.baseMicros = baseMicros;
+            this.perMessageMicros = perMessageMicros;
+        }
+
+        @Override
+        public void deliver(List<T> batch) throws Exception {
+            calls.increment();
+            TimeUnit.MICROSECONDS.sleep(baseMicros + perMessageMicros * batch.size());
+            if (ThreadLocalRandom.current().nextInt(100) == 0) throw new java.io.IOException("stub transient failure");
+        }
+    }
+
+    static final class StubDirectory implements NotificationDispatcher.UserDirectory {
+        @Override
+        public Map<String, NotificationDispatcher.UserProfile> lookup(Set<String> userIds) throws Exception {
+            // One getAll() round-trip
+            TimeUnit.MILLISECONDS.sleep(4);
+            Map<String, NotificationDispatcher.UserProfile> found = new HashMap<>();
+            for (String id : userIds) {
+                // Most users have a push token; about a third have an email address
+                found.put(id, new NotificationDispatcher.UserProfile(id, id, id.hashCode() % 10 == 0 ? null : "fcm-" + id,
+                    id.hashCode() % 3 == 0 ? id + "@example.com" : null));
+            }
+            return found;
+        }
+    }
+}
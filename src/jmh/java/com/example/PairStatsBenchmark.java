@@ -0,0 +1,70 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Streaming pair-stat updates, and a parallel rebuild from a synthetic dare history.
+// The rebuild defaults to 1M dares; pass -p historyDares=10000000 for the 10M run.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PairStatsBenchmark {
+
+    @Param({"1000000"})
+    public int historyDares;
+
+    private Path history;
+    private PairStatsAggregator streaming;
+    private String[] users;
+    private SplittableRandom random;
+    private LocalDate day;
+
+    @Setup(Level.Trial)
+    public void writeHistory() throws IOException {
+        history = Files.createTempFile("dare-history", ".csv");
+        SplittableRandom r = new SplittableRandom(5);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        int perDay = Math.max(1, historyDares / 700);
+        try (BufferedWriter out = Files.newBufferedWriter(history)) {
+            for (int i = 0; i < historyDares; i++) {
+                out.write(start.plusDays(i / perDay) + ",user" + r.nextInt(200_000) + ",user" + r.nextInt(200_000) + "\n");
+            }
+        }
+        users = new String[200_000];
+        for (int i = 0; i < users.length; i++) users[i] = "user" + i;
+        streaming = new PairStatsAggregator(new UserIds());
+        random = new SplittableRandom(9);
+        day = LocalDate.of(2025, 1, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        Files.deleteIfExists(history);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int rebuild() throws IOException {
+        return PairStatsAggregator.rebuild(history, new UserIds()).pairCount();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public int streamingUpdate() {
+        // Small user pool so most events hit existing pairs
+        streaming.onDareCompleted(users[random.nextInt(2000)], users[random.nextInt(2000)], day);
+        return streaming.pairCount();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Uploading a 256 MB proof video into a directory chunk store: into an empty store (every chunk is
+// written and forced) and into one that already has it (read and hash only). Runs with a 64 MB heap
+// to show the file is streamed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class ProofUploadBenchmark {
+    @Param({"262144", "1048576", "4194304"})
+    public int chunkSize;
+
+    @Param({"false", "true"})
+    public boolean alreadyStored;
+
+    private Path dir;
+    private Path video;
+    private Path store;
+    private ProofUploader uploader;
+
+    @Setup(Level.Trial)
+    public void writeVideo() throws IOException {
+        dir = Files.createTempDirectory("proof-upload");
+        video = dir.resolve("proof.mp4");
+        SplittableRandom r = new SplittableRandom(23);
+        byte[] block = new byte[1 << 20];
+        try (OutputStream out = Files.newOutputStream(video)) {
+            for (int i = 0; i < 256; i++) {
+                for (int b = 0; b < block.length; b++) block[b] = (byte) r.nextInt();
+                out.write(block);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void freshStore() throws IOException {
+        if (store != null) delete(store);
+        store = Files.createTempDirectory(dir, "store");
+        uploader = new ProofUploader(new DirectoryChunkStore(store), chunkSize, 1, Runnable::run);
+        if (alreadyStored) uploader.upload(video);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        delete(dir);
+    }
+
+    @Benchmark
+    public ProofUploader.Result upload() throws IOException {
+        ProofUploader.Result result = uploader.upload(video);
+        if (alreadyStored && result.sent() != 0) throw new IllegalStateException("Re-upload sent " + result.sent() + " chunks");
+        return result;
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Fills the referral code space to 90% and prints allocation latency per 10% of occupancy, next to what
+// referral.js's draw-and-check loop (10 attempts) would need at the same occupancy: mean existence
+// checks per code and the share of requests that give up. Each of those checks is a Firestore round-trip
+// there; the allocator's latency should stay flat all the way up.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReferralCodeBenchmark {
+    private static final int DECILES = 9;
+    private static final int PROBES = 100_000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path log;
+    private ReferralCodeAllocator allocator;
+
+    @Setup(Level.Invocation)
+    public void open() throws IOException {
+        log = Files.createTempFile("referrals", ".log");
+        Files.delete(log);
+        allocator = new ReferralCodeAllocator(log);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+        allocator.close();
+        Files.deleteIfExists(log);
+    }
+
+    @Benchmark
+    public long fillToNinetyPercent() throws InterruptedException {
+        int perDecile = ReferralCodeAllocator.SPACE / 10 / threads;
+        long[][][] latencies = new long[DECILES][threads][perDecile];
+        SplittableRandom random = new SplittableRandom(42);
+        System.out.printf("%n  %d thread(s)%n  occupancy   p50 ns   p99 ns  p99.9 ns   max ms   draw-and-check: checks/code  gave up%n", threads);
+        for (int decile = 0; decile < DECILES; decile++) {
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                long[] samples = latencies[decile][t];
+                int owner = t;
+                Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < samples.length; i++) {
+                        long t0 = System.nanoTime();
+                        allocator.allocate("user" + (owner * 100_000 + i % 100_000));
+                        samples[i] = System.nanoTime() - t0;
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            long[] all = Arrays.stream(latencies[decile]).flatMapToLong(Arrays::stream).sorted().toArray();
+            double[] drawAndCheck = drawAndCheck(random);
+            System.out.printf("  %3d-%3d%%  %7d  %7d  %8d  %7.1f   %27.2f  %6.1f%%%n", decile * 10, decile * 10 + 10,
+                at(all, 0.50), at(all, 0.99), at(all, 0.999), all[all.length - 1] / 1e6,
+                drawAndCheck[0], drawAndCheck[1] * 100);
+        }
+        return allocator.allocated();
+    }
+
+    // referral.js: up to 10 random codes, each checked for existence
+    private double[] drawAndCheck(SplittableRandom random) {
+        long checks = 0;
+        int failed = 0;
+        for (int p = 0; p < PROBES; p++) {
+            int attempt = 0;
+            boolean found = false;
+            while (attempt < 10 && !found) {
+                attempt++;
+                found = !allocator.exists(ReferralCodeAllocator.format(random.nextInt(ReferralCodeAllocator.SPACE)));
+            }
+            checks += attempt;
+            if (!found) failed++;
+        }
+        return new double[]{(double) checks / PROBES, (double) failed / PROBES};
+    }
+
+    private static long at(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Concurrent engagement rewards through the engine into the journaled ledger. processDurable waits for
+// the group commit, so it measures fsync batching rather than the in-memory credit path. Every reward
+// is also tallied per author; teardown checks the live balances and the balances replayed from the
+// journal against those totals.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RewardLedgerBenchmark {
+    private static final String[] TYPES = {"like", "comment", "share"};
+    private static final int AUTHORS = 10_000;
+
+    private Path journal;
+    private RewardLedger ledger;
+    private RewardsEngine engine;
+    private AtomicLongArray expected;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        journal = Files.createTempFile("rewards", ".journal");
+        ledger = new RewardLedger(journal);
+        engine = new RewardsEngine(ledger);
+        expected = new AtomicLongArray(AUTHORS);
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() throws IOException {
+        try {
+            check("live", ledger);
+        } finally {
+            ledger.close();
+        }
+        try (RewardLedger reopened = new RewardLedger(journal)) {
+            check("replayed", reopened);
+        } finally {
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    private void check(String which, RewardLedger ledger) {
+        for (int author = 0; author < AUTHORS; author++) {
+            RewardLedger.Balance balance = ledger.balance("user" + author);
+            if (balance.pendingRewards() != expected.get(author) || balance.stonesBalance() != 0) {
+                throw new IllegalStateException(which + " balance of user" + author + " is " + balance + ", expected pending "
+                    + expected.get(author));
+            }
+        }
+    }
+
+    // The engager is never the author, so every engagement is rewarded
+    private RewardsEngine.Engagement engagement() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int author = random.nextInt(AUTHORS);
+        String type = TYPES[random.nextInt(TYPES.length)];
+        expected.addAndGet(author, RewardsEngine.RewardConfig.DEFAULT.engagement().get(type));
+        return new RewardsEngine.Engagement("post" + random.nextInt(100_000), "user" + author,
+            "user" + (author + 1 + random.nextInt(100)), type);
+    }
+
+    @Benchmark
+    public long process() {
+        return engine.process(engagement());
+    }
+
+    @Benchmark
+    public long processDurable() throws IOException, InterruptedException {
+        long seq = engine.process(engagement());
+        ledger.awaitDurable(seq);
+        return seq;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.spi.ToolProvider;
+
+// Cold start of the achievement page: every invocation launches a fresh JVM and is timed from
+// process start until the startup probe (-Ddarecards.startupProbe) prints its first-frame or
+// interactive line. eager=true is the old path that builds every card before the stage is shown;
+// cds=true starts from an AppCDS archive recorded by a training launch during setup. The app runs
+// from jars (CDS cannot map classes from directories) on this fork's Glass platform.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    private static final String FIRST_FRAME = "[startup] first-frame";
+    private static final String INTERACTIVE = "[startup] interactive";
+
+    // The java launcher refuses to start an Application subclass from the class path directly
+    public static final class Launcher {
+        public static void main(String[] args) {
+            javafx.application.Application.launch(Main.class, args);
+        }
+    }
+
+    @Param({"true", "false"})
+    public boolean eager;
+
+    @Param({"false", "true"})
+    public boolean cds;
+
+    private Path dir;
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException, InterruptedException {
+        dir = Files.createTempDirectory("startup");
+        ToolProvider jar = ToolProvider.findFirst("jar").orElseThrow(() -> new IllegalStateException("needs a JDK"));
+        StringJoiner classpath = new StringJoiner(File.pathSeparator);
+        int jars = 0;
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!Files.isDirectory(Path.of(entry))) {
+                classpath.add(entry);
+                continue;
+            }
+            String file = dir.resolve("classes-" + jars++ + ".jar").toString();
+            if (jar.run(System.out, System.err, "--create", "--file", file, "-C", entry, ".") != 0) {
+                throw new IllegalStateException("could not jar " + entry);
+            }
+            classpath.add(file);
+        }
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String property : new String[] {"glass.platform", "monocle.platform", "prism.order"}) {
+            if (System.getProperty(property) != null) command.add("-D" + property + "=" + System.getProperty(property));
+        }
+        command.add("-Ddarecards.startupProbe=true");
+        command.add("-Dachievements.eager=" + eager);
+        if (cds) {
+            Path archive = dir.resolve("darecards.jsa");
+            command.add("-XX:ArchiveClassesAtExit=" + archive);
+            train(classpath.toString(), archive);
+            command.set(command.size() - 1, "-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-cp");
+        command.add(classpath.toString());
+        command.add(Launcher.class.getName());
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public long firstFrame() throws IOException, InterruptedException {
+        return launch(FIRST_FRAME);
+    }
+
+    @Benchmark
+    public long interactive() throws IOException, InterruptedException {
+        return launch(INTERACTIVE);
+    }
+
+    // The archive is written when the JVM exits, which the probe does after the interactive frame
+    private void train(String classpath, Path archive) throws IOException, InterruptedException {
+        List<String> training = new ArrayList<>(command);
+        training.addAll(List.of("-cp", classpath, Launcher.class.getName()));
+        Process process = new ProcessBuilder(training).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        if (!process.waitFor(2, TimeUnit.MINUTES)) process.destroyForcibly();
+        if (!Files.isRegularFile(archive)) throw new IllegalStateException("CDS training run wrote no archive");
+    }
+
+    // Returns the ms since JVM start that the app reported; JMH times the whole launch
+    private long launch(String probeLine) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        try (BufferedReader out = process.inputReader()) {
+            for (String line; (line = out.readLine()) != null; ) {
+                if (line.startsWith(probeLine)) {
+                    return Long.parseLong(line.substring(probeLine.length()).trim().split(" ")[0]);
+                }
+            }
+        } finally {
+            process.destroyForcibly();
+            process.waitFor();
+        }
+        throw new IllegalStateException("app exited without printing " + probeLine);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Feed assembly over 1M users who each follow 20 random users and some of 50 celebrities (about
+// 20k followers each, so fan-out on read), with every timeline ring filled by ~3M prior activities.
+// Setup prints the ring memory and the whole service's heap per user; the benchmarks time a first
+// page, scrolling three pages with the cursor, and one publish (the fan-out on write).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TimelineBenchmark {
+    private static final int FOLLOWS = 20;
+    private static final int CELEBRITIES = 50;
+    private static final int PAGE = 20;
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"0", "4"})
+    public int celebritiesFollowed;
+
+    private String[] names;
+    private TimelineService timelines;
+    private SplittableRandom random;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        names = new String[users];
+        for (int i = 0; i < users; i++) names[i] = "user" + i;
+        UserIds ids = new UserIds();
+        for (String name : names) ids.intern(name);
+        long before = usedHeap();
+
+        timelines = new TimelineService(ids, TimelineService.DEFAULT_RING_CAPACITY, 1 << 22, TimelineService.CELEBRITY_FOLLOWERS);
+        SplittableRandom r = new SplittableRandom(21);
+        for (int i = 0; i < users; i++) {
+            for (int f = 0; f < FOLLOWS; f++) timelines.follow(names[i], names[CELEBRITIES + r.nextInt(users - CELEBRITIES)]);
+            for (int c = 0; c < celebritiesFollowed; c++) timelines.follow(names[i], names[r.nextInt(CELEBRITIES)]);
+        }
+        // Enough activity for the average follower to fill their ring
+        int activities = users / FOLLOWS * TimelineService.DEFAULT_RING_CAPACITY;
+        String[] texts = {"completed a dare", "earned an achievement", "posted"};
+        TimelineService.Kind[] kinds = TimelineService.Kind.values();
+        for (int i = 0; i < activities; i++) {
+            int kind = i % 3;
+            // Celebrities post as often as everyone else put together
+            String actor = celebritiesFollowed > 0 && (i & 1) == 0 ? names[r.nextInt(CELEBRITIES)] : names[r.nextInt(users)];
+            timelines.publish(actor, kinds[kind], "s" + (i & 1023), texts[kind], i);
+        }
+        long after = usedHeap();
+        System.out.printf("%n  %d users, %d activities: rings %.0f B/user, service heap %.0f B/user%n",
+            users, activities, (double) timelines.ringBytes() / users, (double) (after - before) / users);
+        random = new SplittableRandom(8);
+    }
+
+    @Benchmark
+    public int firstPage() {
+        return timelines.timeline(names[random.nextInt(users)], null, PAGE).items().size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(3)
+    public int scroll() {
+        String user = names[random.nextInt(users)];
+        String cursor = null;
+        int items = 0;
+        for (int p = 0; p < 3; p++) {
+            DareStore.Page<TimelineService.Activity> page = timelines.timeline(user, cursor, PAGE);
+            items += page.items().size();
+            cursor = page.nextCursor();
+            if (cursor == null) break;
+        }
+        return items;
+    }
+
+    @Benchmark
+    public long publish() {
+        return timelines.publish(names[CELEBRITIES + random.nextInt(users - CELEBRITIES)],
+            TimelineService.Kind.POST_CREATED, "post", "posted", next++);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
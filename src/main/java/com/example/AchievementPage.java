@@ -1,11 +1,13 @@
 package com.example;
 
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
@@ -13,12 +15,30 @@ import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 public class AchievementPage {
+    private static final int PROOF_WIDTH = 350;
+    private static final int PROOF_HEIGHT = 80;
+    // Incremental builds add cards until this much of a pulse is used (at least one card per pulse)
+    private static final long BUILD_BUDGET_NANOS = 4_000_000;
+
+    // Shared across page builds so identical proof URLs are decoded once
+    private static final ProofImageLoader proofImages = new ProofImageLoader(
+            2, 32, 32L * 1024 * 1024,
+            System.getProperty("proofImageCacheDir") != null ? java.nio.file.Path.of(System.getProperty("proofImageCacheDir")) : null);
+
     private VBox view;
+    private ScrollPane scrollPane;
+    private VBox cardsContainer;
+    private final List<ProofSlot> proofSlots = new java.util.ArrayList<>();
+    private boolean ready;
 
-    private static class Achievement {
+    // A card's proof image, loaded while the card is in the viewport and cancelled when it scrolls away
+    private record ProofSlot(VBox card, ImageView imageView, String url) {}
+
+    static class Achievement {
         String title, reward, rewardColor, timestamp, type;
         String proofImage;
         List<String> avatars; // placeholder, using strings for urls if needed
@@ -34,7 +54,7 @@ public class AchievementPage {
         }
     }
 
-    private List<Achievement> achievements = Arrays.asList(
+    private static final List<Achievement> achievements = Arrays.asList(
             new Achievement("Won $20 Blackjack Dare", "+15", "#00D4AA",
                     "https://via.placeholder.com/200x100?text=Blackjack+Proof",
                     "03:08 PM EDT, Oct 17, 2025", "win", Arrays.asList(null, null, null)),
@@ -47,14 +67,30 @@ public class AchievementPage {
     );
 
     public AchievementPage() {
-        createView();
+        this(false);
+    }
+
+    // incremental: only the header, the empty scroll area and the footer are built here; the cards
+    // follow a few per pulse, starting once the page's first frame has been laid out
+    AchievementPage(boolean incremental) {
+        createView(incremental);
+    }
+
+    // Shared with the HTTP API
+    static List<Achievement> getAchievements() {
+        return achievements;
     }
 
     public VBox getView() {
         return view;
     }
 
-    private void createView() {
+    // True once every card is in the page
+    boolean isReady() {
+        return ready;
+    }
+
+    private void createView(boolean incremental) {
         view = new VBox(10);
         view.setPadding(new Insets(10));
         view.setAlignment(Pos.TOP_CENTER);
@@ -75,19 +111,27 @@ public class AchievementPage {
         header.getChildren().addAll(trophy, title);
 
         // Scrollable Cards
-        ScrollPane scrollPane = new ScrollPane();
+        scrollPane = new ScrollPane();
         scrollPane.setFitToWidth(true);
         scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
         scrollPane.setStyle("-fx-background: #000000;");
 
-        VBox cardsContainer = new VBox(10);
+        cardsContainer = new VBox(10);
         cardsContainer.setPadding(new Insets(10, 0, 80, 0));
 
-        for (Achievement ach : achievements) {
-            cardsContainer.getChildren().add(createCard(ach));
+        if (incremental) {
+            buildCardsAfterFirstFrame();
+        } else {
+            for (Achievement ach : achievements) {
+                cardsContainer.getChildren().add(createCard(ach));
+            }
+            ready = true;
         }
 
         scrollPane.setContent(cardsContainer);
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> updateProofImages());
+        scrollPane.viewportBoundsProperty().addListener((obs, oldValue, newValue) -> updateProofImages());
+        cardsContainer.heightProperty().addListener((obs, oldValue, newValue) -> updateProofImages());
 
         // Footer Button
         Button claimButton = new Button("Claim Reward");
@@ -102,7 +146,49 @@ public class AchievementPage {
         view.getChildren().addAll(header, scrollPane, footer);
     }
 
+    private void buildCardsAfterFirstFrame() {
+        Iterator<Achievement> pending = achievements.iterator();
+        AnimationTimer builder = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                long deadline = System.nanoTime() + BUILD_BUDGET_NANOS;
+                List<Node> cards = new java.util.ArrayList<>();
+                while (pending.hasNext() && (cards.isEmpty() || System.nanoTime() < deadline)) {
+                    cards.add(createCard(pending.next()));
+                }
+                cardsContainer.getChildren().addAll(cards);
+                if (!pending.hasNext()) {
+                    stop();
+                    ready = true;
+                }
+            }
+        };
+        // Animation timers run before layout in a pulse, so starting from the first post-layout
+        // callback keeps the first frame down to the page shell
+        view.sceneProperty().addListener(new javafx.beans.value.ChangeListener<>() {
+            @Override
+            public void changed(javafx.beans.value.ObservableValue<? extends Scene> obs, Scene oldScene, Scene scene) {
+                if (scene == null) return;
+                view.sceneProperty().removeListener(this);
+                scene.addPostLayoutPulseListener(new Runnable() {
+                    private boolean started;
+
+                    @Override
+                    public void run() {
+                        if (started) return;
+                        started = true;
+                        builder.start();
+                        // Not removed in place: the scene is iterating its listeners
+                        javafx.application.Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                    }
+                });
+            }
+        });
+    }
+
     private VBox createCard(Achievement ach) {
+        DareEvents.CardBuild event = new DareEvents.CardBuild();
+        event.begin();
         VBox card = new VBox(10);
         card.setStyle("-fx-background-color: #222222; -fx-border-color: #333333; -fx-border-width: 1; -fx-border-radius: 10; -fx-background-radius: 10;");
         card.setPadding(new Insets(16));
@@ -141,10 +227,11 @@ public class AchievementPage {
 
         cardContainer.getChildren().add(rewardStack);
 
-        // Proof Image
-        ImageView proofImage = new ImageView(new Image(ach.proofImage, 350, 80, true, true));
-        proofImage.setFitWidth(350);
-        proofImage.setFitHeight(80);
+        // Proof Image (placeholder until the card is scrolled into view and the loader delivers it)
+        ImageView proofImage = new ImageView();
+        proofImage.setFitWidth(PROOF_WIDTH);
+        proofImage.setFitHeight(PROOF_HEIGHT);
+        proofImage.setPreserveRatio(true);
 
         // Timestamp
         Label timestamp = new Label(ach.timestamp);
@@ -153,6 +240,29 @@ public class AchievementPage {
 
         card.getChildren().addAll(title, typeLabel, avatars, proofImage, timestamp);
 
-        return new VBox(cardContainer);
+        VBox wrapper = new VBox(cardContainer);
+        proofSlots.add(new ProofSlot(wrapper, proofImage, ach.proofImage));
+        event.page = "achievements";
+        event.phase = "create";
+        event.commit();
+        return wrapper;
+    }
+
+    private void updateProofImages() {
+        double contentHeight = cardsContainer.getHeight();
+        double viewportHeight = scrollPane.getViewportBounds().getHeight();
+        if (contentHeight <= 0 || viewportHeight <= 0) return;
+        double top = Math.max(0, contentHeight - viewportHeight) * scrollPane.getVvalue();
+        double bottom = top + viewportHeight;
+
+        for (ProofSlot slot : proofSlots) {
+            javafx.geometry.Bounds bounds = slot.card.getBoundsInParent();
+            boolean visible = bounds.getMaxY() >= top && bounds.getMinY() <= bottom;
+            if (visible && !proofImages.isLoaded(slot.imageView) && !proofImages.isPending(slot.imageView)) {
+                proofImages.load(slot.imageView, slot.url, PROOF_WIDTH, PROOF_HEIGHT);
+            } else if (!visible && proofImages.isPending(slot.imageView)) {
+                proofImages.cancel(slot.imageView);
+            }
+        }
     }
 }
@@ -0,0 +1,333 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+// Daily rollover of login streaks and post limits over a user-state file, in place of one
+// checkAndAwardDailyLogin transaction per login (loginRewards.js) and the resetDailyPostLimits sweep.
+//
+// State file layout (big-endian):
+//   header   magic "USRS", u16 version, u16 reserved, i32 userCount, i32 rolledThrough (epoch day),
+//            then one i64 offset per section in the order below
+//   lastLogin, lastClaim, streak, maxStreak, totalLogins, dailyPosts, lastPostReset
+//            i32[userCount] each; days are epoch days, NEVER for none
+//   ids      i32 userCount, i32[userCount + 1] byte offsets, then UTF-8 bytes
+//
+// A run works on a copy of the file. Fork-join tasks take CHUNK users each: read the chunk's columns
+// into int arrays, roll them over, write them into the copy, force it and append the chunk number to
+// a checkpoint file, so a crashed run for the same day resumes with the chunks it has not done yet.
+// Once every chunk is done, reward deltas come from comparing the copy with the original and are
+// written as RewardLedger journal lines; then the copy replaces the original.
+class DailyRollover {
+    static final int MAGIC = 0x55535253; // "USRS"
+    static final short VERSION = 1;
+    static final int NEVER = Integer.MIN_VALUE;
+    static final int CHUNK = 1 << 16;
+
+    // Same rewards as checkAndAwardDailyLogin: 5 Stones plus 2 per streak day, capped at 7 days
+    static final int BASE_REWARD = 5;
+    static final int STREAK_BONUS = 2;
+    static final int STREAK_BONUS_DAYS = 7;
+
+    private static final int CHECKPOINT_MAGIC = 0x434B5054; // "CKPT"
+    private static final int COLUMNS = 7;
+    private static final int LAST_LOGIN = 0, LAST_CLAIM = 1, STREAK = 2, MAX_STREAK = 3, TOTAL_LOGINS = 4,
+        DAILY_POSTS = 5, LAST_POST_RESET = 6, IDS = 7;
+    private static final int SECTIONS = COLUMNS + 1;
+    private static final int ROLLED_THROUGH = 12;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 4 + SECTIONS * 8;
+
+    record UserState(String userId, int lastLoginDay, int lastClaimDay, int currentStreak, int maxStreak,
+                     int totalLogins, int dailyPostCount, int lastPostResetDay) {}
+
+    record Result(int users, int rewarded, long stonesAwarded, int postResets, int chunksResumed) {}
+
+    static Result run(Path stateFile, LocalDate day, Path deltaFile) throws IOException {
+        return run(stateFile, day, deltaFile, ForkJoinPool.commonPool());
+    }
+
+    // Rolls the file over through `day`; running again for a day that is already done changes nothing
+    static Result run(Path stateFile, LocalDate day, Path deltaFile, ForkJoinPool pool) throws IOException {
+        int today = Math.toIntExact(day.toEpochDay());
+        Path next = sibling(stateFile, ".next");
+        Path checkpoint = sibling(stateFile, ".checkpoint");
+        Result result;
+        try (FileChannel in = FileChannel.open(stateFile, StandardOpenOption.READ)) {
+            State input = new State(map(in, FileChannel.MapMode.READ_ONLY));
+            if (input.rolledThrough() >= today) return new Result(input.users, 0, 0, 0, 0);
+
+            long fingerprint = Files.size(stateFile) * 31 + Files.getLastModifiedTime(stateFile).toMillis();
+            BitSet done = readCheckpoint(checkpoint, today, fingerprint);
+            if (done == null || !Files.exists(next)) {
+                done = new BitSet();
+                Files.copy(stateFile, next, StandardCopyOption.REPLACE_EXISTING);
+                ByteBuffer header = ByteBuffer.allocate(16).putInt(CHECKPOINT_MAGIC).putInt(today).putLong(fingerprint).flip();
+                try (FileChannel c = FileChannel.open(checkpoint, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (header.hasRemaining()) c.write(header);
+                    c.force(true);
+                }
+            }
+
+            try (FileChannel out = FileChannel.open(next, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileChannel log = FileChannel.open(checkpoint, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                MappedByteBuffer mapped = map(out, FileChannel.MapMode.READ_WRITE);
+                State output = new State(mapped);
+                int chunks = (input.users + CHUNK - 1) / CHUNK;
+                BitSet resume = done;
+                forEachChunk(pool, chunks, c -> {
+                    if (resume.get(c)) return;
+                    rollChunk(input, output, mapped, c, today);
+                    appendCheckpoint(log, c);
+                });
+                result = writeDeltas(input, output, deltaFile, pool, done.cardinality());
+                mapped.putInt(ROLLED_THROUGH, today);
+                mapped.force();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(next, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(checkpoint);
+        return result;
+    }
+
+    // The streak rules of checkAndAwardDailyLogin, applied to the latest login up to `today` that has
+    // not been claimed yet: a one-day gap extends the streak, anything longer restarts it
+    static void roll(int[][] columns, int count, int today) {
+        int[] lastLogin = columns[LAST_LOGIN], lastClaim = columns[LAST_CLAIM], streak = columns[STREAK],
+            maxStreak = columns[MAX_STREAK], totalLogins = columns[TOTAL_LOGINS], dailyPosts = columns[DAILY_POSTS],
+            lastPostReset = columns[LAST_POST_RESET];
+        for (int i = 0; i < count; i++) {
+            int login = lastLogin[i];
+            int claim = lastClaim[i];
+            if (login != NEVER && login <= today && (claim == NEVER || claim < login)) {
+                int s = claim != NEVER && login - claim == 1 ? streak[i] + 1 : 1;
+                streak[i] = s;
+                if (s > maxStreak[i]) maxStreak[i] = s;
+                totalLogins[i]++;
+                lastClaim[i] = login;
+            }
+            if (dailyPosts[i] > 0) {
+                dailyPosts[i] = 0;
+                lastPostReset[i] = today + 1;
+            }
+        }
+    }
+
+    static int reward(int streak) {
+        return BASE_REWARD + Math.min(streak, STREAK_BONUS_DAYS) * STREAK_BONUS;
+    }
+
+    private static void rollChunk(State input, State output, MappedByteBuffer mapped, int chunk, int today) {
+        int from = chunk * CHUNK;
+        int count = Math.min(CHUNK, input.users - from);
+        int[][] columns = new int[COLUMNS][count];
+        for (int c = 0; c < COLUMNS; c++) input.columns[c].get(from, columns[c], 0, count);
+        roll(columns, count, today);
+        for (int c = 0; c < COLUMNS; c++) {
+            output.columns[c].put(from, columns[c], 0, count);
+            mapped.force(output.offsets[c] + from * 4, count * 4);
+        }
+    }
+
+    private static void appendCheckpoint(FileChannel log, int chunk) {
+        ByteBuffer record = ByteBuffer.allocate(4).putInt(chunk).flip();
+        try {
+            synchronized (log) {
+                while (record.hasRemaining()) log.write(record);
+                log.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Chunks already done for this day and this input file, or null to start over
+    private static BitSet readCheckpoint(Path checkpoint, int today, long fingerprint) throws IOException {
+        if (!Files.exists(checkpoint)) return null;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (buf.remaining() < 16 || buf.getInt() != CHECKPOINT_MAGIC || buf.getInt() != today || buf.getLong() != fingerprint) {
+            return null;
+        }
+        BitSet done = new BitSet();
+        // A torn trailing record means its chunk was never acknowledged; it is simply redone
+        while (buf.remaining() >= 4) done.set(buf.getInt());
+        return done;
+    }
+
+    private static Result writeDeltas(State input, State output, Path deltaFile, ForkJoinPool pool, int resumed) throws IOException {
+        int chunks = (input.users + CHUNK - 1) / CHUNK;
+        byte[][] lines = new byte[chunks][];
+        LongAdder rewarded = new LongAdder(), stones = new LongAdder(), postResets = new LongAdder();
+        forEachChunk(pool, chunks, c -> {
+            int from = c * CHUNK;
+            int to = Math.min(input.users, from + CHUNK);
+            ByteArrayOutputStream chunkLines = new ByteArrayOutputStream();
+            for (int u = from; u < to; u++) {
+                if (input.columns[DAILY_POSTS].get(u) > 0) postResets.increment();
+                if (output.columns[LAST_CLAIM].get(u) == input.columns[LAST_CLAIM].get(u)) continue;
+                int streak = output.columns[STREAK].get(u);
+                int amount = reward(streak);
+                rewarded.increment();
+                stones.add(amount);
+                chunkLines.writeBytes(RewardLedger.encode(new RewardLedger.Credit(input.userId(u), null, "login_earn",
+                    "Daily login reward (Streak: " + streak + ")", 0, amount)));
+            }
+            lines[c] = chunkLines.toByteArray();
+        });
+        Path tmp = Files.createTempFile(deltaFile.toAbsolutePath().getParent(), "rewards", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (byte[] chunkLines : lines) {
+                ByteBuffer buf = ByteBuffer.wrap(chunkLines);
+                while (buf.hasRemaining()) channel.write(buf);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, deltaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Result(input.users, rewarded.intValue(), stones.sum(), postResets.intValue(), resumed);
+    }
+
+    private static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer task) {
+        final class Split extends RecursiveAction {
+            private final int from, to;
+
+            Split(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from == 1) {
+                    task.accept(from);
+                } else if (to > from) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new Split(from, mid), new Split(mid, to));
+                }
+            }
+        }
+        pool.invoke(new Split(0, chunks));
+    }
+
+    // Writes the users to `file` atomically (temp file + move)
+    static void write(Path file, int count, IntFunction<UserState> users) throws IOException {
+        int[][] columns = new int[COLUMNS][count];
+        int[] idOffsets = new int[count + 1];
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            UserState u = users.apply(i);
+            ids.writeBytes(u.userId().getBytes(StandardCharsets.UTF_8));
+            idOffsets[i + 1] = ids.size();
+            columns[LAST_LOGIN][i] = u.lastLoginDay();
+            columns[LAST_CLAIM][i] = u.lastClaimDay();
+            columns[STREAK][i] = u.currentStreak();
+            columns[MAX_STREAK][i] = u.maxStreak();
+            columns[TOTAL_LOGINS][i] = u.totalLogins();
+            columns[DAILY_POSTS][i] = u.dailyPostCount();
+            columns[LAST_POST_RESET][i] = u.lastPostResetDay();
+        }
+        long[] sections = new long[SECTIONS];
+        for (int c = 0; c < COLUMNS; c++) sections[c] = HEADER_SIZE + (long) c * count * 4;
+        sections[IDS] = HEADER_SIZE + (long) COLUMNS * count * 4 + 4;
+        long size = sections[IDS] + (count + 1) * 4L + ids.size();
+        if (size > Integer.MAX_VALUE) throw new IOException("User state larger than 2 GB");
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "users", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putInt(NEVER);
+            for (long section : sections) buf.putLong(section);
+            for (int c = 0; c < COLUMNS; c++) buf.slice((int) sections[c], count * 4).asIntBuffer().put(columns[c]);
+            buf.putInt((int) sections[IDS] - 4, count);
+            buf.slice((int) sections[IDS], (count + 1) * 4).asIntBuffer().put(idOffsets);
+            buf.put((int) sections[IDS] + (count + 1) * 4, ids.toByteArray());
+            buf.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<UserState> readAll(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            State state = new State(map(channel, FileChannel.MapMode.READ_ONLY));
+            List<UserState> users = new ArrayList<>(state.users);
+            for (int u = 0; u < state.users; u++) {
+                users.add(new UserState(state.userId(u), state.columns[LAST_LOGIN].get(u), state.columns[LAST_CLAIM].get(u),
+                    state.columns[STREAK].get(u), state.columns[MAX_STREAK].get(u), state.columns[TOTAL_LOGINS].get(u),
+                    state.columns[DAILY_POSTS].get(u), state.columns[LAST_POST_RESET].get(u)));
+            }
+            return users;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) throw new IOException("User state larger than 2 GB");
+        return channel.map(mode, 0, channel.size());
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    // Column views over a mapped state file; absolute int reads and writes, so tasks can share them
+    private static final class State {
+        final ByteBuffer buf;
+        final int users;
+        final int[] offsets = new int[SECTIONS];
+        final IntBuffer[] columns = new IntBuffer[COLUMNS];
+        final IntBuffer idOffsets;
+
+        State(ByteBuffer buf) throws IOException {
+            this.buf = buf;
+            if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC) throw new IOException("Not a user state file");
+            short version = buf.getShort(4);
+            if (version != VERSION) throw new IOException("Unsupported user state version " + version);
+            users = buf.getInt(8);
+            for (int s = 0; s < SECTIONS; s++) {
+                long offset = buf.getLong(16 + s * 8);
+                long length = s == IDS ? (users + 1) * 4L : users * 4L;
+                if (offset < HEADER_SIZE || offset + length > buf.capacity()) throw new IOException("Corrupt user state section " + s);
+                offsets[s] = (int) offset;
+            }
+            for (int c = 0; c < COLUMNS; c++) columns[c] = buf.slice(offsets[c], users * 4).asIntBuffer();
+            idOffsets = buf.slice(offsets[IDS], (users + 1) * 4).asIntBuffer();
+        }
+
+        int rolledThrough() {
+            return buf.getInt(ROLLED_THROUGH);
+        }
+
+        String userId(int user) {
+            int start = idOffsets.get(user);
+            byte[] bytes = new byte[idOffsets.get(user + 1) - start];
+            buf.get(offsets[IDS] + (users + 1) * 4 + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Read-only HTTP/JSON view of DareService for tools that would otherwise go through the Firebase functions:
+//   GET /dares?status=&creator=&participant=&cursor=&limit=   newest first, paged like DareStore
+//   GET /dares/{id}
+//   GET /search?q=&limit=                                      title search over the 256 newest matches, near-duplicates collapsed
+//   GET /pairs?a=&b=                                           one pair's stats
+//   GET /users/{id}/pairs                                      every pair the user is part of
+//   GET /achievements
+// Field names follow the Firestore documents (snake_case). Every request runs on its own virtual thread.
+// JSON is encoded as it is written: a response up to 16K goes out with a Content-Length in one write,
+// a larger page streams chunked instead of being built up in memory first.
+// ETags are the version counter of the data behind the response, so a conditional GET
+// is answered with a 304 before any query runs.
+class DareApiServer implements AutoCloseable {
+    static final int MAX_PAGE_SIZE = 10_000;
+    static final int MAX_SEARCH_RESULTS = 100;
+
+    static {
+        // The JDK server closes keep-alive connections beyond 200 idle ones, which turns every request
+        // from a large client pool into a reconnect. Must be set before the first HttpServer is created.
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "16384");
+        }
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+    private final DareStore store;
+    private final DareTitleIndex titleIndex;
+    private final PairStatsAggregator pairStats;
+    private final List<AchievementPage.Achievement> achievements;
+    private final String achievementsTag;
+
+    DareApiServer(InetSocketAddress address, DareStore store, DareTitleIndex titleIndex, PairStatsAggregator pairStats,
+                  List<AchievementPage.Achievement> achievements) throws IOException {
+        this.store = store;
+        this.titleIndex = titleIndex;
+        this.pairStats = pairStats;
+        this.achievements = achievements;
+        // The achievement list is fixed for the life of the process, so its tag is a content hash
+        int hash = 1;
+        for (AchievementPage.Achievement a : achievements) {
+            hash = 31 * hash + java.util.Objects.hash(a.title, a.reward, a.rewardColor, a.proofImage, a.timestamp, a.type);
+        }
+        this.achievementsTag = "\"a" + Integer.toHexString(hash) + "\"";
+        server = HttpServer.create(address, 4096);
+        server.setExecutor(requests);
+        server.createContext("/dares", get(this::dares));
+        server.createContext("/search", get(this::search));
+        server.createContext("/pairs", get(this::pair));
+        server.createContext("/users/", get(this::userPairs));
+        server.createContext("/achievements", get(this::achievements));
+    }
+
+    // The server mode: java -m com.example/com.example.DareApiServer [port]; port 0 picks a free one
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        DareService.addMockDares(Integer.getInteger("darecards.mockCount", 0));
+        DareApiServer server = startForDareService(port);
+        System.out.println("Dare API listening on http://localhost:" + server.port());
+    }
+
+    static DareApiServer startForDareService(int port) throws IOException {
+        DareService.startExpirySweeps();
+        DareApiServer server = new DareApiServer(new InetSocketAddress(port), DareService.getStore(),
+            DareService.getTitleIndex(), DareService.getPairStats(), AchievementPage.getAchievements());
+        server.start();
+        return server;
+    }
+
+    void start() {
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        requests.close();
+    }
+
+    private interface Route {
+        void handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    private static final class BadRequest extends RuntimeException {
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    private static HttpHandler get(Route route) {
+        return exchange -> {
+            try (exchange) {
+                String method = exchange.getRequestMethod();
+                if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                    sendError(exchange, 405, "method not allowed");
+                    return;
+                }
+                try {
+                    route.handle(exchange, query(exchange.getRequestURI().getRawQuery()));
+                } catch (BadRequest | NumberFormatException e) {
+                    sendError(exchange, 400, e.getMessage());
+                }
+            } catch (IOException e) {
+                // Client went away mid-response
+            }
+        };
+    }
+
+    private void dares(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > "/dares/".length() && path.startsWith("/dares/")) {
+            String tag = "\"d" + store.version() + "\"";
+            if (notModified(exchange, tag)) return;
+            Dare dare = store.get(URLDecoder.decode(path.substring("/dares/".length()), StandardCharsets.UTF_8));
+            if (dare == null) {
+                sendError(exchange, 404, "no such dare");
+                return;
+            }
+            try (Json json = open(exchange, tag)) {
+                if (json != null) writeDare(json, dare);
+            }
+            return;
+        }
+        if (!path.equals("/dares") && !path.equals("/dares/")) {
+            sendError(exchange, 404, "not found");
+            return;
+        }
+
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DareService.DEFAULT_PAGE_SIZE;
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) throw new BadRequest("limit must be between 1 and " + MAX_PAGE_SIZE);
+        String status = query.get("status"), creator = query.get("creator"), participant = query.get("participant");
+        String cursor = query.get("cursor");
+        if (cursor != null && !cursor.chars().allMatch(Character::isDigit)) throw new BadRequest("bad cursor");
+        if (creator != null && (status != null || participant != null)) {
+            throw new BadRequest("creator cannot be combined with other filters");
+        }
+
+        // Read before the query, so a tag can only be older than the data it was sent with, never newer
+        String tag = "\"d" + store.version() + "\"";
+        if (notModified(exchange, tag)) return;
+        DareStore.Page<Dare> page;
+        if (creator != null) {
+            page = store.byCreator(creator, cursor, limit);
+        } else if (status != null && participant != null) {
+            page = store.byStatusAndParticipant(status, participant, cursor, limit);
+        } else if (status != null) {
+            page = store.byStatus(status, cursor, limit);
+        } else if (participant != null) {
+            page = store.byParticipant(participant, cursor, limit);
+        } else {
+            page = store.newest(cursor, limit);
+        }
+
+        try (Json json = open(exchange, tag)) {
+            if (json == null) return;
+            json.beginObject().name("items").beginArray();
+            for (Dare dare : page.items()) writeDare(json, dare);
+            json.endArray().name("next_cursor").value(page.nextCursor()).endObject();
+        }
+    }
+
+    private void search(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/search")) {
+            sendError(exchange, 404, "not found");
+            return;
+        }
+        String q = query.get("q");
+        if (q == null || q.isBlank()) throw new BadRequest("q is required");
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : 20;
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) throw new BadRequest("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        // The index follows the store, so the store's version tags search results too
+        String tag = "\"d" + store.version() + "\"";
+        if (notModified(exchange, tag)) return;
+        List<DareTitleIndex.Group> groups = titleIndex.search(q, limit);
+        try (Json json = open(exchange, tag)) {
+            if (json == null) return;
+            json.beginObject().name("items").beginArray();
+            for (DareTitleIndex.Group group : groups) {
+                json.beginObject().name("dare");
+                writeDare(json, group.dare());
+                json.name("duplicate_ids").beginArray();
+                for (Dare duplicate : group.duplicates()) json.value(duplicate.id);
+                json.endArray().endObject();
+            }
+            json.endArray().endObject();
+        }
+    }
+
+    private void pair(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/pairs")) {
+            sendError(exchange, 404, "not found");
+            return;
+        }
+        String a = query.get("a"), b = query.get("b");
+        if (a == null || b == null) throw new BadRequest("a and b are required");
+        String tag = "\"p" + pairStats.version() + "\"";
+        if (notModified(exchange, tag)) return;
+        PairStatsAggregator.PairStats stats = pairStats.get(a, b);
+        if (stats == null) {
+            sendError(exchange, 404, "no dares between these users");
+            return;
+        }
+        try (Json json = open(exchange, tag)) {
+            if (json != null) writePair(json, stats);
+        }
+    }
+
+    private void userPairs(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!path.endsWith("/pairs") || path.length() <= "/users//pairs".length()) {
+            sendError(exchange, 404, "not found");
+            return;
+        }
+        String user = URLDecoder.decode(path.substring("/users/".length(), path.length() - "/pairs".length()), StandardCharsets.UTF_8);
+        String tag = "\"p" + pairStats.version() + "\"";
+        if (notModified(exchange, tag)) return;
+        List<PairStatsAggregator.PairStats> pairs = pairStats.pairsFor(user);
+        try (Json json = open(exchange, tag)) {
+            if (json == null) return;
+            json.beginArray();
+            for (PairStatsAggregator.PairStats stats : pairs) writePair(json, stats);
+            json.endArray();
+        }
+    }
+
+    private void achievements(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/achievements")) {
+            sendError(exchange, 404, "not found");
+            return;
+        }
+        if (notModified(exchange, achievementsTag)) return;
+        try (Json json = open(exchange, achievementsTag)) {
+            if (json == null) return;
+            json.beginArray();
+            for (AchievementPage.Achievement a : achievements) {
+                json.beginObject()
+                    .name("title").value(a.title)
+                    .name("reward").value(a.reward)
+                    .name("reward_color").value(a.rewardColor)
+                    .name("proof_url").value(a.proofImage)
+                    .name("timestamp").value(a.timestamp)
+                    .name("type").value(a.type)
+                    .endObject();
+            }
+            json.endArray();
+        }
+    }
+
+    private static void writeDare(Json json, Dare dare) throws IOException {
+        json.beginObject()
+            .name("id").value(dare.id)
+            .name("title").value(dare.title)
+            .name("creator_id").value(dare.creatorId)
+            .name("status").value(dare.status)
+            .name("participants").beginArray();
+        for (String participant : dare.participants) json.value(participant);
+        json.endArray()
+            .name("deadline").value(dare.deadline)
+            .name("entry_stake").value(dare.entryStake)
+            .name("winner_id").value(dare.winnerId)
+            .endObject();
+    }
+
+    private static void writePair(Json json, PairStatsAggregator.PairStats stats) throws IOException {
+        json.beginObject()
+            .name("user_a").value(stats.userA())
+            .name("user_b").value(stats.userB())
+            .name("total_dares").value(stats.totalDares())
+            .name("current_streak").value(stats.currentStreak())
+            .name("last_dare_date").value(stats.lastDareDate().toString())
+            .endObject();
+    }
+
+    // RFC 9110 If-None-Match: weak comparison, any tag in the list, or "*"
+    private static boolean notModified(HttpExchange exchange, String tag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", tag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        List<String> headers = exchange.getRequestHeaders().get("If-None-Match");
+        if (headers == null) return false;
+        for (String header : headers) {
+            for (String candidate : header.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+                if (candidate.equals("*") || candidate.equals(tag)) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Starts a 200 response; null for HEAD, which gets the headers only
+    private static Json open(HttpExchange exchange, String tag) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("ETag", tag);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            return null;
+        }
+        return new Json(new ResponseBody(exchange));
+    }
+
+    private static final class ResponseBody extends OutputStream {
+        private static final int SPILL = 16 * 1024;
+        private final HttpExchange exchange;
+        private final byte[] head = new byte[SPILL];
+        private int count;
+        private OutputStream streaming;
+
+        ResponseBody(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (streaming == null && count + len <= SPILL) {
+                System.arraycopy(b, off, head, count, len);
+                count += len;
+                return;
+            }
+            if (streaming == null) {
+                exchange.sendResponseHeaders(200, 0);
+                streaming = exchange.getResponseBody();
+                streaming.write(head, 0, count);
+            }
+            streaming.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (streaming == null) {
+                exchange.sendResponseHeaders(200, count);
+                streaming = exchange.getResponseBody();
+                streaming.write(head, 0, count);
+            }
+            streaming.close();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().remove("ETag");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        StringBuilder body = new StringBuilder("{\"error\":");
+        Json.quote(body, message == null ? "bad request" : message);
+        byte[] bytes = body.append("}").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, "HEAD".equals(exchange.getRequestMethod()) ? -1 : bytes.length);
+        if (!"HEAD".equals(exchange.getRequestMethod())) exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+
+    // Minimal streaming JSON writer: commas are tracked per nesting level, nothing is buffered beyond the
+    // writer and response buffers, so a 10k-dare page costs the same memory as a 10-dare one
+    static final class Json implements AutoCloseable {
+        private final Writer out;
+        private final boolean[] needsComma = new boolean[16];
+        private int depth;
+        private boolean afterName;
+
+        Json(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        }
+
+        Json beginObject() throws IOException {
+            separator();
+            out.write('{');
+            needsComma[++depth] = false;
+            return this;
+        }
+
+        Json endObject() throws IOException {
+            out.write('}');
+            depth--;
+            return this;
+        }
+
+        Json beginArray() throws IOException {
+            separator();
+            out.write('[');
+            needsComma[++depth] = false;
+            return this;
+        }
+
+        Json endArray() throws IOException {
+            out.write(']');
+            depth--;
+            return this;
+        }
+
+        Json name(String name) throws IOException {
+            separator();
+            StringBuilder sb = new StringBuilder(name.length() + 3);
+            quote(sb, name);
+            out.append(sb).write(':');
+            afterName = true;
+            return this;
+        }
+
+        Json value(String value) throws IOException {
+            separator();
+            if (value == null) {
+                out.write("null");
+            } else {
+                StringBuilder sb = new StringBuilder(value.length() + 2);
+                quote(sb, value);
+                out.append(sb);
+            }
+            return this;
+        }
+
+        Json value(LocalDateTime value) throws IOException {
+            return value(value == null ? null : value.toString());
+        }
+
+        Json value(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void separator() throws IOException {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (needsComma[depth]) out.write(',');
+            needsComma[depth] = true;
+        }
+
+        static void quote(StringBuilder sb, String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+}
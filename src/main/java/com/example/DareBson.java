@@ -0,0 +1,547 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// BSON documents for Dare and AchievementPage.Achievement, byte for byte what the js-bson build in
+// lib/ produces for the same plain objects (fields in the order below, missing values as null):
+//   dare         dare_id, title, creator_id, status, participants (array of user ids), deadline
+//                (UTC date, the local date-time read as UTC like DareSnapshot), entry_stake (int32), winner_id
+//   achievement  title, reward, reward_color, proof_image, timestamp, type, avatars (array, null entries)
+//
+// Writing mirrors calculate_size.ts and serializer.ts: sizeOf walks the fields to get the exact length
+// (UTF-8 lengths are counted, not encoded) so a batch gets one buffer of the right size from a Pool,
+// then write encodes in a single pass straight into it with no temporary byte arrays, patching each
+// length prefix once its contents are written.
+//
+// Reading is lazy: a Document is a reusable flyweight over one document in a ByteBuffer. The first
+// field access records where each known field's value starts in one pass; values are decoded only
+// when asked for, and numbers and string comparisons never allocate. Unknown fields are skipped, so
+// documents written by the backend with extra fields still read.
+final class DareBson {
+    static final long NO_DEADLINE = DareSnapshot.NO_DEADLINE;
+
+    static final byte DOUBLE = 0x01, STRING = 0x02, DOCUMENT = 0x03, ARRAY = 0x04, DATE = 0x09, NULL = 0x0A, INT32 = 0x10, INT64 = 0x12;
+
+    private static final String[] DARE_FIELDS = {"dare_id", "title", "creator_id", "status", "participants", "deadline", "entry_stake", "winner_id"};
+    private static final String[] ACHIEVEMENT_FIELDS = {"title", "reward", "reward_color", "proof_image", "timestamp", "type", "avatars"};
+    private static final byte[][] DARE_NAMES = cstrings(DARE_FIELDS);
+    private static final byte[][] ACHIEVEMENT_NAMES = cstrings(ACHIEVEMENT_FIELDS);
+    private static final int D_ID = 0, D_TITLE = 1, D_CREATOR = 2, D_STATUS = 3, D_PARTICIPANTS = 4, D_DEADLINE = 5, D_STAKE = 6, D_WINNER = 7;
+    private static final int A_TITLE = 0, A_REWARD = 1, A_REWARD_COLOR = 2, A_PROOF_IMAGE = 3, A_TIMESTAMP = 4, A_TYPE = 5, A_AVATARS = 6;
+
+    private DareBson() {
+    }
+
+    // ---- writing ----
+
+    static int sizeOf(Dare dare) {
+        byte[][] n = DARE_NAMES;
+        return 4 + stringSize(n[D_ID], dare.id) + stringSize(n[D_TITLE], dare.title) + stringSize(n[D_CREATOR], dare.creatorId)
+            + stringSize(n[D_STATUS], dare.status) + arraySize(n[D_PARTICIPANTS], participants(dare))
+            + 1 + n[D_DEADLINE].length + (dare.deadline != null ? 8 : 0)
+            + 1 + n[D_STAKE].length + 4 + stringSize(n[D_WINNER], dare.winnerId) + 1;
+    }
+
+    static int sizeOf(AchievementPage.Achievement a) {
+        byte[][] n = ACHIEVEMENT_NAMES;
+        return 4 + stringSize(n[A_TITLE], a.title) + stringSize(n[A_REWARD], a.reward) + stringSize(n[A_REWARD_COLOR], a.rewardColor)
+            + stringSize(n[A_PROOF_IMAGE], a.proofImage) + stringSize(n[A_TIMESTAMP], a.timestamp) + stringSize(n[A_TYPE], a.type)
+            + arraySize(n[A_AVATARS], a.avatars) + 1;
+    }
+
+    // Writes at the buffer's position and advances it; needs sizeOf(dare) bytes remaining
+    static void write(Dare dare, ByteBuffer buf) {
+        byte[][] n = DARE_NAMES;
+        ByteBuffer out = buf.order(ByteOrder.LITTLE_ENDIAN);
+        int start = out.position();
+        out.putInt(0);
+        putString(out, n[D_ID], dare.id);
+        putString(out, n[D_TITLE], dare.title);
+        putString(out, n[D_CREATOR], dare.creatorId);
+        putString(out, n[D_STATUS], dare.status);
+        putArray(out, n[D_PARTICIPANTS], participants(dare));
+        if (dare.deadline != null) {
+            out.put(DATE).put(n[D_DEADLINE]).putLong(dare.deadline.toInstant(ZoneOffset.UTC).toEpochMilli());
+        } else {
+            out.put(NULL).put(n[D_DEADLINE]);
+        }
+        out.put(INT32).put(n[D_STAKE]).putInt(dare.entryStake);
+        putString(out, n[D_WINNER], dare.winnerId);
+        out.put((byte) 0);
+        out.putInt(start, out.position() - start);
+    }
+
+    static void write(AchievementPage.Achievement a, ByteBuffer buf) {
+        byte[][] n = ACHIEVEMENT_NAMES;
+        ByteBuffer out = buf.order(ByteOrder.LITTLE_ENDIAN);
+        int start = out.position();
+        out.putInt(0);
+        putString(out, n[A_TITLE], a.title);
+        putString(out, n[A_REWARD], a.reward);
+        putString(out, n[A_REWARD_COLOR], a.rewardColor);
+        putString(out, n[A_PROOF_IMAGE], a.proofImage);
+        putString(out, n[A_TIMESTAMP], a.timestamp);
+        putString(out, n[A_TYPE], a.type);
+        putArray(out, n[A_AVATARS], a.avatars);
+        out.put((byte) 0);
+        out.putInt(start, out.position() - start);
+    }
+
+    static byte[] toBytes(Dare dare) {
+        ByteBuffer buf = ByteBuffer.allocate(sizeOf(dare));
+        write(dare, buf);
+        return buf.array();
+    }
+
+    static byte[] toBytes(AchievementPage.Achievement a) {
+        ByteBuffer buf = ByteBuffer.allocate(sizeOf(a));
+        write(a, buf);
+        return buf.array();
+    }
+
+    // The dares back to back, in a pooled buffer flipped for reading; release it to the pool when done
+    static ByteBuffer writeDares(List<Dare> dares, Pool pool) {
+        long total = 0;
+        for (Dare dare : dares) total += sizeOf(dare);
+        ByteBuffer buf = pool.acquire(Math.toIntExact(total));
+        for (Dare dare : dares) write(dare, buf);
+        return buf.flip();
+    }
+
+    static ByteBuffer writeAchievements(List<AchievementPage.Achievement> achievements, Pool pool) {
+        long total = 0;
+        for (AchievementPage.Achievement a : achievements) total += sizeOf(a);
+        ByteBuffer buf = pool.acquire(Math.toIntExact(total));
+        for (AchievementPage.Achievement a : achievements) write(a, buf);
+        return buf.flip();
+    }
+
+    // A fixed-size view, which escape analysis keeps off the heap
+    private static List<String> participants(Dare dare) {
+        return Arrays.asList(dare.participants);
+    }
+
+    private static int stringSize(byte[] name, String value) {
+        return value == null ? 1 + name.length : 1 + name.length + 4 + utf8Length(value) + 1;
+    }
+
+    private static int arraySize(byte[] name, List<String> values) {
+        if (values == null) return 1 + name.length;
+        int size = 1 + name.length + 4 + 1;
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            int key = digits(i) + 1;
+            size += value == null ? 1 + key : 1 + key + 4 + utf8Length(value) + 1;
+        }
+        return size;
+    }
+
+    private static void putString(ByteBuffer out, byte[] name, String value) {
+        if (value == null) {
+            out.put(NULL).put(name);
+            return;
+        }
+        out.put(STRING).put(name);
+        int lengthAt = out.position();
+        out.putInt(0);
+        putUtf8(out, value);
+        out.put((byte) 0);
+        out.putInt(lengthAt, out.position() - lengthAt - 4);
+    }
+
+    private static void putArray(ByteBuffer out, byte[] name, List<String> values) {
+        if (values == null) {
+            out.put(NULL).put(name);
+            return;
+        }
+        out.put(ARRAY).put(name);
+        int start = out.position();
+        out.putInt(0);
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            out.put(value == null ? NULL : STRING);
+            putIndex(out, i);
+            if (value != null) {
+                int lengthAt = out.position();
+                out.putInt(0);
+                putUtf8(out, value);
+                out.put((byte) 0);
+                out.putInt(lengthAt, out.position() - lengthAt - 4);
+            }
+        }
+        out.put((byte) 0);
+        out.putInt(start, out.position() - start);
+    }
+
+    // Array keys are the decimal indexes as cstrings
+    private static void putIndex(ByteBuffer out, int index) {
+        if (index < 10) {
+            out.put((byte) ('0' + index));
+        } else {
+            int at = out.position() + digits(index);
+            out.position(at);
+            for (int v = index; v > 0; v /= 10) out.put(--at, (byte) ('0' + v % 10));
+        }
+        out.put((byte) 0);
+    }
+
+    private static int digits(int index) {
+        int digits = 1;
+        for (int v = index; v >= 10; v /= 10) digits++;
+        return digits;
+    }
+
+    // Bytes of `s` in UTF-8 as Node's Buffer writes it: unpaired surrogates become U+FFFD (3 bytes)
+    static int utf8Length(String s) {
+        int n = s.length();
+        int bytes = n;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                // Four bytes for the two chars
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static void putUtf8(ByteBuffer out, String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    out.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+                } else {
+                    out.put((byte) 0xEF).put((byte) 0xBF).put((byte) 0xBD);
+                }
+            } else {
+                out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static byte[][] cstrings(String[] names) {
+        byte[][] result = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) result[i] = (names[i] + '\0').getBytes(StandardCharsets.US_ASCII);
+        return result;
+    }
+
+    // ---- pooled buffers ----
+
+    // Little-endian heap buffers in power-of-two sizes (at least 4 KB), at most `perSize` kept per size
+    static final class Pool {
+        private final List<ArrayBlockingQueue<ByteBuffer>> sizes = new ArrayList<>(31);
+
+        Pool(int perSize) {
+            for (int i = 0; i <= 30; i++) sizes.add(new ArrayBlockingQueue<>(perSize));
+        }
+
+        ByteBuffer acquire(int capacity) {
+            int shift = Math.max(12, 32 - Integer.numberOfLeadingZeros(capacity - 1));
+            if (shift > 30) throw new IllegalArgumentException("Buffer larger than 1 GB: " + capacity);
+            ByteBuffer buf = sizes.get(shift).poll();
+            if (buf == null) buf = ByteBuffer.allocate(1 << shift);
+            return buf.clear().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        // Buffers that did not come from acquire are dropped
+        void release(ByteBuffer buf) {
+            int capacity = buf.capacity();
+            if (buf.hasArray() && Integer.bitCount(capacity) == 1 && capacity >= 1 << 12) {
+                sizes.get(Integer.numberOfTrailingZeros(capacity)).offer(buf);
+            }
+        }
+    }
+
+    // ---- reading ----
+
+    // Flyweight over one document: wrap() it onto a buffer and offset, then read fields
+    abstract static class Document {
+        private final byte[][] names;
+        private final int[] valueAt;
+        private final byte[] typeAt;
+        private ByteBuffer buf;
+        private int start, end;
+        private boolean scanned;
+
+        Document(byte[][] names) {
+            this.names = names;
+            this.valueAt = new int[names.length];
+            this.typeAt = new byte[names.length];
+        }
+
+        // The offset of the next document in a batch is offset + size()
+        Document wrap(ByteBuffer buffer, int offset) {
+            ByteBuffer b = buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int size = b.getInt(offset);
+            if (size < 5 || offset + size > b.limit() || b.get(offset + size - 1) != 0) {
+                throw new IllegalArgumentException("Corrupt BSON document at " + offset);
+            }
+            buf = b;
+            start = offset;
+            end = offset + size;
+            scanned = false;
+            return this;
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        boolean isNull(int field) {
+            return at(field) < 0;
+        }
+
+        String string(int field) {
+            int p = at(field);
+            if (p < 0) return null;
+            if (typeAt[field] != STRING) throw type(field);
+            int length = buf.getInt(p) - 1;
+            if (buf.hasArray()) return new String(buf.array(), buf.arrayOffset() + p + 4, length, StandardCharsets.UTF_8);
+            byte[] bytes = new byte[length];
+            buf.get(p + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Compares without decoding; ASCII `expected` values never allocate
+        boolean stringEquals(int field, String expected) {
+            int p = at(field);
+            if (p < 0 || expected == null) return p < 0 && expected == null;
+            if (typeAt[field] != STRING) return false;
+            int length = buf.getInt(p) - 1;
+            int n = expected.length();
+            if (length < n) return false;
+            for (int i = 0; i < n; i++) {
+                char c = expected.charAt(i);
+                if (c >= 0x80) return expected.equals(string(field));
+                if (buf.get(p + 4 + i) != c) return false;
+            }
+            return length == n;
+        }
+
+        // Integers written by JS may be int32, int64 or (beyond int32) double
+        long number(int field, long ifNull) {
+            int p = at(field);
+            if (p < 0) return ifNull;
+            return switch (typeAt[field]) {
+                case INT32 -> buf.getInt(p);
+                case INT64, DATE -> buf.getLong(p);
+                case DOUBLE -> (long) buf.getDouble(p);
+                default -> throw type(field);
+            };
+        }
+
+        int arrayLength(int field) {
+            int p = at(field);
+            if (p < 0) return 0;
+            if (typeAt[field] != ARRAY) throw type(field);
+            int count = 0;
+            for (int e = p + 4; buf.get(e) != 0; e = skip(buf, buf.get(e), skipName(e + 1))) count++;
+            return count;
+        }
+
+        // Elements are strings or null
+        String arrayString(int field, int index) {
+            int p = at(field);
+            if (p < 0) throw new IndexOutOfBoundsException(index);
+            if (typeAt[field] != ARRAY) throw type(field);
+            int e = p + 4;
+            for (int i = 0; i < index && buf.get(e) != 0; i++) e = skip(buf, buf.get(e), skipName(e + 1));
+            byte type = buf.get(e);
+            if (type == 0) throw new IndexOutOfBoundsException(index);
+            int value = skipName(e + 1);
+            if (type == NULL) return null;
+            if (type != STRING) throw type(field);
+            byte[] bytes = new byte[buf.getInt(value) - 1];
+            buf.get(value + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<String> arrayStrings(int field) {
+            if (isNull(field)) return null;
+            int count = arrayLength(field);
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) values.add(arrayString(field, i));
+            return values;
+        }
+
+        private int at(int field) {
+            if (!scanned) scan();
+            return valueAt[field];
+        }
+
+        // One pass over the elements; the first occurrence of a field wins, null values stay -1
+        private void scan() {
+            Arrays.fill(valueAt, -1);
+            int p = start + 4;
+            while (p < end - 1) {
+                byte type = buf.get(p);
+                int nameStart = p + 1;
+                int value = skipName(nameStart);
+                int field = field(nameStart, value - 1 - nameStart);
+                if (field >= 0 && valueAt[field] < 0 && type != NULL && type != 0x06) {
+                    valueAt[field] = value;
+                    typeAt[field] = type;
+                }
+                p = skip(buf, type, value);
+            }
+            if (p != end - 1) throw new IllegalArgumentException("Corrupt BSON document at " + start);
+            scanned = true;
+        }
+
+        private int field(int nameStart, int length) {
+            for (int f = 0; f < names.length; f++) {
+                byte[] name = names[f];
+                if (name.length - 1 != length) continue;
+                int i = 0;
+                while (i < length && buf.get(nameStart + i) == name[i]) i++;
+                if (i == length) return f;
+            }
+            return -1;
+        }
+
+        private int skipName(int p) {
+            while (buf.get(p) != 0) p++;
+            return p + 1;
+        }
+
+        private IllegalArgumentException type(int field) {
+            return new IllegalArgumentException("Unexpected BSON type " + typeAt[field] + " for " + new String(names[field], 0,
+                names[field].length - 1, StandardCharsets.US_ASCII));
+        }
+    }
+
+    // Position after a value of the given type starting at p
+    private static int skip(ByteBuffer buf, byte type, int p) {
+        return switch (type) {
+            case DOUBLE, DATE, INT64, 0x11 -> p + 8;
+            case STRING, 0x0D, 0x0E -> p + 4 + buf.getInt(p);
+            case DOCUMENT, ARRAY, 0x0F -> p + buf.getInt(p);
+            case 0x05 -> p + 5 + buf.getInt(p);
+            case 0x07 -> p + 12;
+            case 0x08 -> p + 1;
+            case NULL, 0x06, 0x7F, (byte) 0xFF -> p;
+            case 0x0B -> {
+                while (buf.get(p) != 0) p++;
+                p++;
+                while (buf.get(p) != 0) p++;
+                yield p + 1;
+            }
+            case 0x0C -> p + 4 + buf.getInt(p) + 12;
+            case INT32 -> p + 4;
+            case 0x13 -> p + 16;
+            default -> throw new IllegalArgumentException("Unsupported BSON type " + type + " at " + p);
+        };
+    }
+
+    static final class DareDocument extends Document {
+        DareDocument() {
+            super(DARE_NAMES);
+        }
+
+        @Override
+        DareDocument wrap(ByteBuffer buffer, int offset) {
+            super.wrap(buffer, offset);
+            return this;
+        }
+
+        String id() {
+            return string(D_ID);
+        }
+
+        String title() {
+            return string(D_TITLE);
+        }
+
+        String creatorId() {
+            return string(D_CREATOR);
+        }
+
+        String status() {
+            return string(D_STATUS);
+        }
+
+        boolean statusIs(String status) {
+            return stringEquals(D_STATUS, status);
+        }
+
+        int participantCount() {
+            return arrayLength(D_PARTICIPANTS);
+        }
+
+        String participant(int index) {
+            return arrayString(D_PARTICIPANTS, index);
+        }
+
+        long deadlineMillis() {
+            return number(D_DEADLINE, NO_DEADLINE);
+        }
+
+        int entryStake() {
+            return (int) number(D_STAKE, 0);
+        }
+
+        String winnerId() {
+            return string(D_WINNER);
+        }
+
+        Dare toDare() {
+            List<String> participants = arrayStrings(D_PARTICIPANTS);
+            long millis = deadlineMillis();
+            LocalDateTime deadline = millis == NO_DEADLINE ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+            return new Dare(id(), title(), creatorId(), status(), participants == null ? null : participants.toArray(new String[0]),
+                deadline, entryStake(), winnerId());
+        }
+    }
+
+    static final class AchievementDocument extends Document {
+        AchievementDocument() {
+            super(ACHIEVEMENT_NAMES);
+        }
+
+        @Override
+        AchievementDocument wrap(ByteBuffer buffer, int offset) {
+            super.wrap(buffer, offset);
+            return this;
+        }
+
+        String title() {
+            return string(A_TITLE);
+        }
+
+        String reward() {
+            return string(A_REWARD);
+        }
+
+        boolean typeIs(String type) {
+            return stringEquals(A_TYPE, type);
+        }
+
+        AchievementPage.Achievement toAchievement() {
+            return new AchievementPage.Achievement(title(), reward(), string(A_REWARD_COLOR), string(A_PROOF_IMAGE),
+                string(A_TIMESTAMP), string(A_TYPE), arrayStrings(A_AVATARS));
+        }
+    }
+}
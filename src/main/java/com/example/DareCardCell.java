@@ -0,0 +1,362 @@
+package com.example;
+
+import javafx.animation.*;
+import javafx.beans.value.ChangeListener;
+import javafx.css.PseudoClass;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.InnerShadow;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Recycled dare card: the node tree and animations are built once per cell and rebound in
+// updateItem, so only the visible rows exist in the scene graph. Styling comes from
+// dare-cards.css style classes and pseudo-classes, colors are cached, the resting shadow is
+// shared by every card and the drag glow is pooled (only one card is dragged at a time).
+class DareCardCell extends ListCell<Dare> {
+    static final String STYLESHEET = DareCardCell.class.getResource("dare-cards.css").toExternalForm();
+
+    private static final int MAX_AVATARS = 3;
+    private static final PseudoClass WON = PseudoClass.getPseudoClass("won");
+    private static final PseudoClass LOST = PseudoClass.getPseudoClass("lost");
+    private static final PseudoClass PULSE = PseudoClass.getPseudoClass("pulse");
+    private static final Color AVATAR_FILL = Color.web("#333333");
+    private static final ConcurrentHashMap<String, Color> COLORS = new ConcurrentHashMap<>();
+
+    // Effects are not nodes, so one instance can back many cards
+    private static final DropShadow REST_SHADOW = new DropShadow(5, Color.web("#00D4AA"));
+    private static final InnerShadow DRAG_GLOW = new InnerShadow(5, Color.web("#00D4AA"));
+
+    private final VBox card = new VBox(5);
+    private final Label cardTitle = new Label();
+    private final Label[] usernameLabels = new Label[MAX_AVATARS];
+    private final Circle[] avatars = new Circle[MAX_AVATARS];
+    private final Label resultLabel = new Label();
+    private final Button actionButton = new Button();
+    private final HBox proofRow = new HBox(8);
+    private final ImageView proofThumbnail = new ImageView();
+    private final ProgressBar proofProgress = new ProgressBar(0);
+    private final ScaleTransition hoverTransition = new ScaleTransition(Duration.millis(200), actionButton);
+    private final Timeline pulseTimeline = new Timeline(
+        new KeyFrame(Duration.ZERO, e -> actionButton.pseudoClassStateChanged(PULSE, false)),
+        new KeyFrame(Duration.millis(150), e -> actionButton.pseudoClassStateChanged(PULSE, true)),
+        new KeyFrame(Duration.millis(300), e -> actionButton.pseudoClassStateChanged(PULSE, false))
+    );
+
+    // Drag events only record the pointer; the timer applies the latest position once per pulse
+    private final AnimationTimer dragUpdater = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (dragDirty) {
+                dragDirty = false;
+                applyDrag(pendingDeltaX);
+            }
+        }
+    };
+
+    private double startX, dragDeltaX, startRotate, startScale;
+    private double pendingDeltaX;
+    private boolean dragDirty;
+    private boolean isWinner;
+    private boolean swiping;
+    private ProofUploader.Upload shownUpload;
+    // Moved from upload to upload as the cell is rebound, so a recycled cell never piles up callbacks
+    private final ChangeListener<ProofUploader.Upload.State> uploadStateListener = (obs, old, state) -> showUploadState(state);
+
+    DareCardCell() {
+        DareEvents.CardBuild build = new DareEvents.CardBuild();
+        build.begin();
+        getStyleClass().add("dare-cell");
+
+        card.setPrefSize(350, 150);
+        card.getStyleClass().add("dare-card");
+
+        cardTitle.getStyleClass().add("dare-title");
+
+        HBox userRow = new HBox(10);
+        userRow.setAlignment(Pos.CENTER);
+        for (int i = 0; i < MAX_AVATARS; i++) {
+            usernameLabels[i] = new Label();
+            usernameLabels[i].getStyleClass().add("dare-username");
+            avatars[i] = new Circle(15, AVATAR_FILL);
+            avatars[i].setStrokeWidth(2);
+            userRow.getChildren().addAll(usernameLabels[i], avatars[i]);
+        }
+
+        HBox iconsRow = new HBox(20);
+        iconsRow.setAlignment(Pos.CENTER);
+        Label[] iconLabels = {
+            new Label("▶"), new Label("•••"), new Label("✖"), new Label("▶")
+        };
+        for (Label iconLabel : iconLabels) {
+            iconLabel.getStyleClass().add("dare-icon");
+        }
+        iconsRow.getChildren().addAll(iconLabels);
+
+        resultLabel.getStyleClass().add("dare-result");
+        actionButton.getStyleClass().add("dare-action");
+
+        // Shown while a proof uploads (and after): thumbnail once decoded, progress per chunk
+        proofRow.setAlignment(Pos.CENTER);
+        proofRow.getStyleClass().add("dare-proof");
+        proofThumbnail.setFitWidth(ProofUploader.THUMBNAIL_SIZE / 2.0);
+        proofThumbnail.setFitHeight(ProofUploader.THUMBNAIL_SIZE / 2.0);
+        proofThumbnail.setPreserveRatio(true);
+        proofProgress.getStyleClass().add("dare-proof-progress");
+        proofRow.getChildren().addAll(proofThumbnail, proofProgress);
+        proofRow.setVisible(false);
+        proofRow.setManaged(false);
+
+        // Hover Animation (Scale Up)
+        actionButton.setOnMouseEntered(e -> {
+            hoverTransition.setToX(1.1);
+            hoverTransition.setToY(1.1);
+            hoverTransition.play();
+        });
+        actionButton.setOnMouseExited(e -> {
+            hoverTransition.setToX(1.0);
+            hoverTransition.setToY(1.0);
+            hoverTransition.play();
+        });
+
+        // Click Animation (Pulse)
+        pulseTimeline.setCycleCount(2);
+        actionButton.setOnMousePressed(e -> pulseTimeline.playFromStart());
+        actionButton.setOnMouseReleased(e -> actionButton.pseudoClassStateChanged(PULSE, false));
+
+        // Interactive Actions
+        actionButton.setOnAction(event -> {
+            if (isWinner) {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Post Action");
+                alert.setContentText("Posting your win!");
+                alert.showAndWait();
+            } else {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle("Add Proof");
+                java.io.File file = fileChooser.showOpenDialog(actionButton.getScene().getWindow());
+                Dare dare = getItem();
+                if (file != null && dare != null) {
+                    showUpload(DareService.getProofUploader().upload(dare.id, file.toPath()));
+                }
+            }
+        });
+
+        card.getChildren().addAll(cardTitle, userRow, iconsRow, resultLabel, proofRow, actionButton);
+        card.setEffect(REST_SHADOW); // Start with shadow only
+
+        installSwipeHandlers();
+
+        build.page = "feed";
+        build.phase = "create";
+        build.commit();
+    }
+
+    @Override
+    protected void updateItem(Dare dare, boolean empty) {
+        super.updateItem(dare, empty);
+        resetCard();
+        if (empty || dare == null) {
+            showUpload(null);
+            setGraphic(null);
+            return;
+        }
+        DareEvents.CardBuild bind = new DareEvents.CardBuild();
+        bind.begin();
+
+        cardTitle.setText(dare.title);
+
+        // Participants (dynamic based on dare data)
+        String[] participants = DareService.getParticipantsForDare(dare);
+        Color statusColor = color(dare.getStatusColor());
+        for (int i = 0; i < MAX_AVATARS; i++) {
+            boolean shown = i < participants.length;
+            usernameLabels[i].setVisible(shown);
+            usernameLabels[i].setManaged(shown);
+            avatars[i].setVisible(shown);
+            avatars[i].setManaged(shown);
+            if (shown) {
+                usernameLabels[i].setText("@" + participants[i]);
+                avatars[i].setStroke(statusColor);
+            }
+        }
+
+        // Result based on winner (matching frontend logic)
+        isWinner = DareService.isParticipant(dare, dare.winnerId);
+        resultLabel.setText(isWinner ? "You Won" : "You Lost");
+        actionButton.setText(isWinner ? "Post" : "Add Proof");
+        resultLabel.pseudoClassStateChanged(WON, isWinner);
+        resultLabel.pseudoClassStateChanged(LOST, !isWinner);
+        actionButton.pseudoClassStateChanged(WON, isWinner);
+        actionButton.pseudoClassStateChanged(LOST, !isWinner);
+        showUpload(DareService.getProofUploader().current(dare.id));
+
+        setGraphic(card);
+
+        bind.page = "feed";
+        bind.phase = "bind";
+        bind.commit();
+    }
+
+    // Binds the proof row to an upload; a recycled cell lets go of the previous dare's
+    private void showUpload(ProofUploader.Upload upload) {
+        proofProgress.progressProperty().unbind();
+        proofThumbnail.imageProperty().unbind();
+        if (shownUpload != null) shownUpload.stateProperty().removeListener(uploadStateListener);
+        shownUpload = upload;
+        boolean shown = upload != null && upload.stateProperty().get() != ProofUploader.Upload.State.FAILED;
+        proofRow.setVisible(shown);
+        proofRow.setManaged(shown);
+        if (!shown) {
+            shownUpload = null;
+            proofThumbnail.setImage(null);
+            proofProgress.setProgress(0);
+            return;
+        }
+        proofProgress.progressProperty().bind(upload.progressProperty());
+        proofThumbnail.imageProperty().bind(upload.thumbnailProperty());
+        upload.stateProperty().addListener(uploadStateListener);
+        showUploadState(upload.stateProperty().get());
+    }
+
+    // Changes on the FX thread; a failed upload keeps its checkpoints, so picking the file again resumes
+    private void showUploadState(ProofUploader.Upload.State state) {
+        switch (state) {
+            case DONE -> actionButton.setText("Proof Added");
+            case FAILED -> showUpload(null);
+            case UPLOADING -> { }
+        }
+    }
+
+    static Color color(String hex) {
+        return COLORS.computeIfAbsent(hex, Color::web);
+    }
+
+    private void installSwipeHandlers() {
+        // Swipe, Rotation, Scale, Opacity and Glow Animation
+        card.setOnMousePressed(e -> {
+            startX = e.getSceneX();
+            dragDeltaX = card.getTranslateX();
+            startRotate = card.getRotate();
+            startScale = card.getScaleX();
+            card.setOpacity(1.0); // Reset opacity on press
+            DRAG_GLOW.setRadius(5); // Reset glow radius
+            dragDirty = false;
+            dragUpdater.start();
+        });
+
+        card.setOnMouseDragged(e -> {
+            pendingDeltaX = e.getSceneX() - startX;
+            dragDirty = true;
+        });
+
+        card.setOnMouseReleased(e -> {
+            DareEvents.ReleaseAnimation setup = new DareEvents.ReleaseAnimation();
+            setup.begin();
+            dragUpdater.stop();
+            if (dragDirty) {
+                dragDirty = false;
+                applyDrag(pendingDeltaX);
+            }
+            double translateX = card.getTranslateX();
+            TranslateTransition translateTransition = new TranslateTransition(Duration.millis(300), card);
+            RotateTransition rotateTransition = new RotateTransition(Duration.millis(300), card);
+            ScaleTransition scaleTransition = new ScaleTransition(Duration.millis(300), card);
+            FadeTransition fadeTransition = new FadeTransition(Duration.millis(300), card);
+            ParallelTransition release = new ParallelTransition(translateTransition, rotateTransition, scaleTransition, fadeTransition);
+            translateTransition.setInterpolator(Interpolator.EASE_OUT);
+            rotateTransition.setInterpolator(Interpolator.EASE_OUT);
+            scaleTransition.setInterpolator(Interpolator.EASE_OUT);
+            fadeTransition.setInterpolator(Interpolator.EASE_OUT);
+
+            if (translateX > 100 || translateX < -100) {
+                // Swipe Right (e.g., Approve) or Swipe Left (e.g., Decline)
+                boolean approve = translateX > 100;
+                translateTransition.setToX(approve ? 400 : -400);
+                rotateTransition.setToAngle(approve ? 15 : -15);
+                scaleTransition.setToX(1.0);
+                scaleTransition.setToY(1.0);
+                fadeTransition.setToValue(0.0); // Full fade-out
+                Dare swiped = getItem();
+                swiping = true;
+                // The cell is reused for another dare once the swiped one leaves the list
+                release.setOnFinished(event -> {
+                    swiping = false;
+                    getListView().getItems().remove(swiped);
+                    resetCard();
+                });
+                // Committed before the alert, whose nested event loop is not part of the setup
+                setup.swiped = true;
+                setup.translateX = translateX;
+                setup.commit();
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Action");
+                alert.setContentText(approve ? "Dare Approved!" : "Dare Declined!");
+                alert.showAndWait();
+            } else {
+                // Reset to original position, rotation, scale, opacity and shadow
+                translateTransition.setToX(0);
+                rotateTransition.setToAngle(0);
+                scaleTransition.setToX(1.0);
+                scaleTransition.setToY(1.0);
+                fadeTransition.setToValue(1.0);
+                card.setEffect(REST_SHADOW); // Revert to shadow only
+                setup.translateX = translateX;
+            }
+            release.play();
+            if (!setup.swiped) setup.commit();
+        });
+    }
+
+    private void applyDrag(double deltaX) {
+        DareEvents.DragUpdate update = new DareEvents.DragUpdate();
+        update.begin();
+        card.setTranslateX(dragDeltaX + deltaX);
+        // Optimized rotation sensitivity with quadratic scaling
+        double rotateAngle = (deltaX * deltaX) / 5000;
+        if (deltaX < 0) rotateAngle = -rotateAngle;
+        if (rotateAngle > 15) rotateAngle = 15;
+        if (rotateAngle < -15) rotateAngle = -15;
+        card.setRotate(startRotate + rotateAngle);
+        // Scale animation based on swipe distance
+        double scaleFactor = 1.0 + Math.abs(deltaX) / 700;
+        if (scaleFactor > 1.2) scaleFactor = 1.2;
+        card.setScaleX(startScale * scaleFactor);
+        card.setScaleY(startScale * scaleFactor);
+        // Opacity fade based on swipe distance
+        double opacity = 1.0 - Math.abs(deltaX) / 400;
+        if (opacity < 0.3) opacity = 0.3;
+        card.setOpacity(opacity);
+        // Glow effect based on swipe distance
+        double glowRadius = 5 + Math.abs(deltaX) / 30; // Max radius 15 at 300px
+        if (glowRadius > 15) glowRadius = 15;
+        DRAG_GLOW.setRadius(glowRadius);
+        card.setEffect(DRAG_GLOW); // Switch to glow during drag
+        update.deltaX = deltaX;
+        update.commit();
+    }
+
+    // A recycled cell must not carry the swipe state of the dare it showed before
+    private void resetCard() {
+        if (swiping) return;
+        dragUpdater.stop();
+        dragDirty = false;
+        card.setTranslateX(0);
+        card.setRotate(0);
+        card.setScaleX(1.0);
+        card.setScaleY(1.0);
+        card.setOpacity(1.0);
+        card.setEffect(REST_SHADOW);
+        actionButton.setScaleX(1.0);
+        actionButton.setScaleY(1.0);
+        actionButton.pseudoClassStateChanged(PULSE, false);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bridges DareStore changes to the FX thread. Changes are coalesced per dare on the writer's thread
+// (insert+update is one insert, insert+remove is nothing), then applied on the FX thread at most
+// maxPerPulse at a time, once per pulse, by an AnimationTimer that only runs while changes are
+// pending. A burst of any size costs one Platform.runLater to wake the timer, never one per change.
+class DareChangeFeed implements AutoCloseable {
+    static final int DEFAULT_MAX_PER_PULSE = 256;
+
+    private final Consumer<List<DareStore.Change>> apply;
+    private final int maxPerPulse;
+    // Guarded by itself; insertion order is arrival order of each dare's first pending change
+    private final LinkedHashMap<String, DareStore.Change> pending = new LinkedHashMap<>();
+    private boolean draining;
+    private final AnimationTimer drainer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+    private final Runnable unsubscribe;
+
+    DareChangeFeed(DareStore store, Consumer<List<DareStore.Change>> apply) {
+        this(store, DEFAULT_MAX_PER_PULSE, apply);
+    }
+
+    DareChangeFeed(DareStore store, int maxPerPulse, Consumer<List<DareStore.Change>> apply) {
+        this.apply = apply;
+        this.maxPerPulse = maxPerPulse;
+        this.unsubscribe = store.subscribe(this::offer);
+    }
+
+    int pending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        unsubscribe.run();
+        Platform.runLater(drainer::stop);
+    }
+
+    private void offer(DareStore.Change change) {
+        synchronized (pending) {
+            String id = change.dare().id;
+            DareStore.Change merged = merge(pending.get(id), change);
+            if (merged == null) {
+                pending.remove(id);
+            } else {
+                pending.put(id, merged);
+            }
+            if (!draining && !pending.isEmpty()) {
+                draining = true;
+                Platform.runLater(drainer::start);
+            }
+        }
+    }
+
+    // The net effect of two changes to the same dare, as seen by a view that applied neither;
+    // null when they cancel out
+    static DareStore.Change merge(DareStore.Change first, DareStore.Change next) {
+        if (first == null) return next;
+        DareStore.ChangeKind kind = switch (first.kind()) {
+            case INSERT -> next.kind() == DareStore.ChangeKind.REMOVE ? null : DareStore.ChangeKind.INSERT;
+            case UPDATE -> next.kind() == DareStore.ChangeKind.REMOVE ? DareStore.ChangeKind.REMOVE : DareStore.ChangeKind.UPDATE;
+            case REMOVE -> next.kind() == DareStore.ChangeKind.REMOVE ? DareStore.ChangeKind.REMOVE : DareStore.ChangeKind.UPDATE;
+        };
+        if (kind == null) return null;
+        return new DareStore.Change(kind, next.dare(), next.status(), first.previousStatus(), next.version());
+    }
+
+    private void drain() {
+        List<DareStore.Change> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(Math.min(maxPerPulse, pending.size()));
+            Iterator<DareStore.Change> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < maxPerPulse) {
+                batch.add(it.next());
+                it.remove();
+            }
+            if (pending.isEmpty()) {
+                draining = false;
+                drainer.stop();
+            }
+        }
+        if (!batch.isEmpty()) apply.accept(batch);
+    }
+}
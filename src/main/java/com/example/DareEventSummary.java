@@ -0,0 +1,73 @@
+package com.example;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Summarizes the DareEvents in a flight recording: count and duration percentiles per event type,
+// split by card phase and image source, plus the node count and FX-thread allocation of recorded pulses.
+//   java -cp ... com.example.DareEventSummary cards.jfr
+class DareEventSummary {
+    private static final class Series {
+        long[] values = new long[64];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: DareEventSummary <recording.jfr>");
+            System.exit(2);
+        }
+        Map<String, Series> durations = new TreeMap<>();
+        Series nodes = new Series();
+        Series allocated = new Series();
+        for (RecordedEvent event : RecordingFile.readAllEvents(Path.of(args[0]))) {
+            String name = event.getEventType().getName();
+            if (!name.startsWith(DareEvents.PREFIX)) continue;
+            String key = event.getEventType().getLabel();
+            if (event.hasField("phase")) key += " [" + event.getString("phase") + "]";
+            if (event.hasField("source")) key += " [" + event.getString("source") + (event.getBoolean("failed") ? ", failed" : "") + "]";
+            durations.computeIfAbsent(key, k -> new Series()).add(event.getDuration().toNanos());
+            if (event.hasField("nodes")) nodes.add(event.getInt("nodes"));
+            if (event.hasField("allocated")) allocated.add(event.getLong("allocated"));
+        }
+        if (durations.isEmpty()) {
+            System.out.println("No " + DareEvents.CATEGORY + " events in " + args[0]);
+            return;
+        }
+        System.out.printf("%-36s %8s %10s %10s %10s %10s%n", "event", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Series> e : durations.entrySet()) {
+            long[] d = e.getValue().sorted();
+            System.out.printf("%-36s %8d %10.3f %10.3f %10.3f %10.3f%n", e.getKey(), d.length,
+                at(d, 0.50) / 1e6, at(d, 0.90) / 1e6, at(d, 0.99) / 1e6, d[d.length - 1] / 1e6);
+        }
+        if (nodes.size > 0) {
+            long[] n = nodes.sorted();
+            System.out.printf("%nscene nodes per pulse: p50 %d, p99 %d, max %d%n", at(n, 0.50), at(n, 0.99), n[n.length - 1]);
+        }
+        if (allocated.size > 0) {
+            long[] a = allocated.sorted();
+            System.out.printf("FX-thread bytes allocated per pulse: p50 %d, p99 %d, max %d%n", at(a, 0.50), at(a, 0.99), a[a.length - 1]);
+        }
+    }
+
+    private static long at(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
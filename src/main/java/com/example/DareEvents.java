@@ -0,0 +1,167 @@
+package com.example;
+
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+// Flight Recorder events for the card UI. They cost next to nothing while no recording is running
+// (commit() is a no-op), so they stay in production builds. -Ddarecards.jfr=cards.jfr records the
+// session with the JDK's default (low overhead) settings plus these events and writes the file on
+// exit; DareEventSummary turns a recording into per-event percentiles. Events that fire per pulse or
+// per drag update skip the stack trace.
+final class DareEvents {
+    static final String CATEGORY = "Dare Cards";
+    static final String PREFIX = "com.example.";
+    private static final long NODE_COUNT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static Recording recording;
+
+    private DareEvents() {
+    }
+
+    @Name(PREFIX + "CardBuild")
+    @Label("Card Build")
+    @Description("Building a card's node tree (create) or binding a recycled card to a dare (bind)")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class CardBuild extends Event {
+        @Label("Page")
+        String page;
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name(PREFIX + "DragUpdate")
+    @Label("Drag Update")
+    @Description("Applying one coalesced drag position to the dragged card")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class DragUpdate extends Event {
+        @Label("Delta X")
+        double deltaX;
+    }
+
+    @Name(PREFIX + "ReleaseAnimation")
+    @Label("Release Animation Setup")
+    @Description("Building and starting the swipe or snap-back transition when a card is released")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ReleaseAnimation extends Event {
+        @Label("Swiped")
+        boolean swiped;
+        @Label("Translate X")
+        double translateX;
+    }
+
+    @Name(PREFIX + "ImageLoad")
+    @Label("Proof Image Load")
+    @Description("Fetching and decoding a proof image, or reading it from the memory or disk cache")
+    @Category(CATEGORY)
+    static final class ImageLoad extends Event {
+        @Label("URL")
+        String url;
+        @Label("Source")
+        String source;
+        @Label("Decoded Size")
+        @DataAmount
+        long bytes;
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name(PREFIX + "Pulse")
+    @Label("FX Pulse")
+    @Description("CSS and layout pass of one scene pulse, from the pre-layout to the post-layout listener")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Pulse extends Event {
+        @Label("Scene")
+        String scene;
+        @Label("Node Count")
+        int nodes;
+        @Label("FX Thread Allocation")
+        @Description("Bytes the FX thread allocated since the previous pulse's layout: input events, animation timers, CSS and layout")
+        @DataAmount
+        long allocated;
+    }
+
+    static void startRecordingIfEnabled() {
+        String file = System.getProperty("darecards.jfr");
+        if (file == null) return;
+        synchronized (DareEvents.class) {
+            if (recording != null) return;
+            try {
+                Recording r = new Recording(Configuration.getConfiguration("default"));
+                r.setName("darecards");
+                r.setToDisk(true);
+                // Written when the recording stops, which the JVM does on exit
+                r.setDestination(Path.of(file));
+                r.start();
+                recording = r;
+            } catch (IOException | ParseException e) {
+                System.err.println("Could not start flight recording to " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Times the scene's CSS + layout pass every pulse. Allocation is sampled while the event is enabled, so
+    // the first pulse of a recording reports 0. Walking a large scene costs milliseconds, so nodes are
+    // recounted at most once a second and only for events that are recorded.
+    static void installPulseEvents(Scene scene, String name) {
+        com.sun.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+            && t.isThreadAllocatedMemorySupported() ? t : null;
+        Pulse[] current = new Pulse[1];
+        long[] lastAllocated = {-1};
+        long[] countedAt = {0};
+        int[] nodes = {-1};
+        scene.addPreLayoutPulseListener(() -> {
+            current[0] = new Pulse();
+            current[0].begin();
+        });
+        scene.addPostLayoutPulseListener(() -> {
+            Pulse pulse = current[0];
+            if (pulse == null) return;
+            current[0] = null;
+            pulse.end();
+            boolean sampling = threads != null && pulse.isEnabled();
+            if (sampling && lastAllocated[0] >= 0) pulse.allocated = threads.getCurrentThreadAllocatedBytes() - lastAllocated[0];
+            if (pulse.shouldCommit()) {
+                pulse.scene = name;
+                long now = System.nanoTime();
+                if (nodes[0] < 0 || now - countedAt[0] >= NODE_COUNT_INTERVAL_NANOS) {
+                    nodes[0] = scene.getRoot() != null ? countNodes(scene.getRoot()) : 0;
+                    countedAt[0] = now;
+                }
+                pulse.nodes = nodes[0];
+                pulse.commit();
+            }
+            // Sampled after the node count and commit, so the next pulse does not include them
+            lastAllocated[0] = sampling ? threads.getCurrentThreadAllocatedBytes() : -1;
+        });
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent parent) {
+            // Indexed, so the walk does not allocate an iterator per parent
+            List<Node> children = parent.getChildrenUnmodifiable();
+            for (int i = 0; i < children.size(); i++) count += countNodes(children.get(i));
+        }
+        return count;
+    }
+}
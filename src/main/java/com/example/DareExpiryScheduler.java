@@ -0,0 +1,175 @@
+package com.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Fires a callback when an open dare passes its deadline, without scanning live dares. Only dares
+// nobody has accepted expire, as in the backend's expireDares and DareLifecycle (OPEN -expire-> EXPIRED).
+// Deadlines sit in a hierarchical timing wheel: WHEEL_LEVELS wheels of 64 slots, each slot of
+// level n spanning 64^n ticks. Advancing one tick touches one level-0 slot; a higher-level slot
+// is cascaded down once per wrap of the level below, so each dare is moved at most
+// WHEEL_LEVELS times before it fires: O(1) amortized. Scheduling and cancelling are O(1).
+class DareExpiryScheduler {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int WHEEL_LEVELS = 5;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * WHEEL_LEVELS)) - 1;
+
+    private static final class Timer {
+        final Dare dare;
+        final long deadlineTick;
+        Timer prev, next;
+        Timer[] bucket;
+        int slot;
+
+        Timer(Dare dare, long deadlineTick) {
+            this.dare = dare;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final Consumer<Dare> onExpired;
+    private final Timer[][] wheels = new Timer[WHEEL_LEVELS][SLOTS];
+    private final Map<String, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    DareExpiryScheduler(Clock clock, Duration tick, Consumer<Dare> onExpired) {
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        if (tickMillis <= 0) throw new IllegalArgumentException("tick must be at least 1ms: " + tick);
+        this.onExpired = onExpired;
+        this.currentTick = clock.millis() / tickMillis;
+    }
+
+    // Registers (or moves) a dare's deadline. Dares without a deadline or no longer open are ignored.
+    synchronized boolean schedule(Dare dare) {
+        cancelLocked(dare.id);
+        if (dare.deadline == null || !"open".equals(dare.status)) {
+            return false;
+        }
+        long deadlineMillis = dare.deadline.atZone(clock.getZone()).toInstant().toEpochMilli();
+        // Round up so a dare never fires before its deadline
+        Timer timer = new Timer(dare, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        timers.put(dare.id, timer);
+        // The current tick's slot has already been drained
+        place(timer, currentTick + 1);
+        return true;
+    }
+
+    synchronized boolean cancel(String dareId) {
+        return cancelLocked(dareId);
+    }
+
+    synchronized int pending() {
+        return timers.size();
+    }
+
+    // Moves the wheel up to the clock's current time and fires every dare that is due.
+    // Callbacks run on the calling thread after the scheduler's lock is released.
+    int advance() {
+        List<Dare> due = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = clock.millis() / tickMillis;
+            while (currentTick < nowTick) {
+                currentTick++;
+                int slot = (int) (currentTick & SLOT_MASK);
+                if (slot == 0) cascade(1);
+                Timer timer = wheels[0][slot];
+                wheels[0][slot] = null;
+                while (timer != null) {
+                    Timer next = timer.next;
+                    timer.prev = timer.next = null;
+                    timer.bucket = null;
+                    timers.remove(timer.dare.id);
+                    due.add(timer.dare);
+                    timer = next;
+                }
+            }
+        }
+        for (Dare dare : due) {
+            // A dare accepted or cancelled after scheduling no longer expires
+            if ("open".equals(dare.status)) {
+                onExpired.accept(dare);
+            }
+        }
+        return due.size();
+    }
+
+    // Advances the wheel once per tick on the given executor
+    ScheduledFuture<?> start(ScheduledExecutorService executor) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                System.err.println("Dare expiry sweep failed: " + e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean cancelLocked(String dareId) {
+        Timer timer = timers.remove(dareId);
+        if (timer == null) return false;
+        unlink(timer);
+        return true;
+    }
+
+    // Re-places every timer of the current slot of `level`; recurses when that level wrapped too.
+    // Runs before the current level-0 slot is drained, so timers due this tick still fire on it.
+    private void cascade(int level) {
+        if (level >= WHEEL_LEVELS) return;
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (slot == 0) cascade(level + 1);
+        Timer timer = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.prev = timer.next = null;
+            timer.bucket = null;
+            place(timer, currentTick);
+            timer = next;
+        }
+    }
+
+    // `earliest` is the first tick whose level-0 slot is still to be drained
+    private void place(Timer timer, long earliest) {
+        long target = Math.max(timer.deadlineTick, earliest);
+        long delta = target - currentTick;
+        if (delta > MAX_DELTA) {
+            // Parked at the top level's furthest slot and re-placed when it cascades
+            target = currentTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+        int level = 0;
+        while (level < WHEEL_LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+        int slot = (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timer[] bucket = wheels[level];
+        timer.bucket = bucket;
+        timer.slot = slot;
+        timer.next = bucket[slot];
+        if (bucket[slot] != null) bucket[slot].prev = timer;
+        bucket[slot] = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        if (timer.bucket == null) return;
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            timer.bucket[timer.slot] = timer.next;
+        }
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+        timer.bucket = null;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// Dare lifecycle as a typed state machine over a write-ahead log, replacing free-form status writes:
+//   OPEN -accept-> ACTIVE -submit proof-> PROOF_SUBMITTED -complete-> COMPLETED
+//   OPEN | ACTIVE -cancel (creator)-> CANCELLED, OPEN -expire-> EXPIRED
+// Commands are routed by dare id to one of N shards. A shard is a single thread that owns its dares,
+// so validation takes no locks: it drains its queue, checks each command against the current state
+// (including earlier commands of the same batch), appends the accepted ones to its own GroupCommitLog and
+// waits for that batch to be forced before completing the callers' futures and publishing the new states.
+// Futures and the listener run on the shard thread. Opening replays every shard's log.
+class DareLifecycle implements AutoCloseable {
+    static final int MAX_BATCH = 4096;
+
+    enum State {
+        OPEN("open"), ACTIVE("active"), PROOF_SUBMITTED("active"), COMPLETED("completed"),
+        CANCELLED("cancelled"), EXPIRED("expired");
+
+        // The Dare.status string shown for this state
+        final String status;
+
+        State(String status) {
+            this.status = status;
+        }
+    }
+
+    enum Outcome { APPLIED, UNKNOWN_DARE, DUPLICATE_DARE, INVALID_TRANSITION, NOT_PERMITTED }
+
+    sealed interface Command permits Create, Accept, SubmitProof, Complete, Cancel, Expire {
+        String dareId();
+    }
+
+    record Create(String dareId, String creatorId, int stake) implements Command {}
+
+    record Accept(String dareId, String userId) implements Command {}
+
+    record SubmitProof(String dareId, String userId, String proofUrl) implements Command {}
+
+    // Only the creator completes a dare, naming the winner (creator or accepter)
+    record Complete(String dareId, String userId, String winnerId) implements Command {}
+
+    record Cancel(String dareId, String userId) implements Command {}
+
+    record Expire(String dareId) implements Command {}
+
+    // Current state of one dare; version counts the transitions applied to it
+    record Lifecycle(String dareId, State state, String creatorId, int stake, String accepterId,
+                     String proofUrl, String winnerId, long version) {}
+
+    private record Pending(Command command, CompletableFuture<Outcome> future) {}
+
+    private final Shard[] shards;
+    private final int maxBatch;
+    private final BiConsumer<Command, Lifecycle> listener;
+    private volatile boolean closed;
+
+    DareLifecycle(Path logDir, int shardCount) throws IOException {
+        this(logDir, shardCount, MAX_BATCH, null);
+    }
+
+    // listener (may be null) sees every durable transition, e.g. to mirror statuses into a DareStore:
+    //   (command, dare) -> store.updateStatus(dare.dareId(), dare.state().status)
+    DareLifecycle(Path logDir, int shardCount, int maxBatch, BiConsumer<Command, Lifecycle> listener) throws IOException {
+        if (shardCount < 1 || maxBatch < 1) throw new IllegalArgumentException("shards and batch size must be positive");
+        Files.createDirectories(logDir);
+        this.maxBatch = maxBatch;
+        this.listener = listener;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, logDir.resolve(String.format("dares-%03d.wal", i)));
+        }
+        // Shards replay their own logs in parallel; a dare's transitions are all in one file
+        List<Thread> replays = new ArrayList<>();
+        IOException[] failure = new IOException[1];
+        for (Shard shard : shards) {
+            replays.add(Thread.ofPlatform().name("dare-wal-replay-" + shard.index).start(() -> {
+                try {
+                    shard.open();
+                } catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            }));
+        }
+        for (Thread replay : replays) {
+            try {
+                replay.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying dare logs", e);
+            }
+        }
+        if (failure[0] != null) {
+            for (Shard shard : shards) shard.closeChannel();
+            throw failure[0];
+        }
+        for (Shard shard : shards) shard.thread.start();
+    }
+
+    // Completes with the outcome once the transition is on disk (or once it was rejected), and
+    // exceptionally if the shard's log failed
+    CompletableFuture<Outcome> submit(Command command) {
+        if (closed) throw new IllegalStateException("Dare lifecycle is closed");
+        java.util.Objects.requireNonNull(command.dareId(), "dareId");
+        CompletableFuture<Outcome> future = new CompletableFuture<>();
+        shardOf(command.dareId()).queue.put(new Pending(command, future));
+        return future;
+    }
+
+    Lifecycle get(String dareId) {
+        return shardOf(dareId).dares.get(dareId);
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) size += shard.dares.size();
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Shard shard : shards) shard.closeChannel();
+    }
+
+    private Shard shardOf(String dareId) {
+        int h = dareId.hashCode() * 0x9E3779B9;
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    static Outcome check(Lifecycle dare, Command command) {
+        if (dare == null) return command instanceof Create ? Outcome.APPLIED : Outcome.UNKNOWN_DARE;
+        return switch (command) {
+            case Create c -> Outcome.DUPLICATE_DARE;
+            case Accept a -> dare.state != State.OPEN ? Outcome.INVALID_TRANSITION
+                : a.userId.equals(dare.creatorId) ? Outcome.NOT_PERMITTED : Outcome.APPLIED;
+            case SubmitProof p -> dare.state != State.ACTIVE ? Outcome.INVALID_TRANSITION
+                : p.userId.equals(dare.accepterId) ? Outcome.APPLIED : Outcome.NOT_PERMITTED;
+            case Complete c -> dare.state != State.PROOF_SUBMITTED ? Outcome.INVALID_TRANSITION
+                : c.userId.equals(dare.creatorId) && (c.winnerId.equals(dare.creatorId) || c.winnerId.equals(dare.accepterId))
+                    ? Outcome.APPLIED : Outcome.NOT_PERMITTED;
+            case Cancel c -> dare.state != State.OPEN && dare.state != State.ACTIVE ? Outcome.INVALID_TRANSITION
+                : c.userId.equals(dare.creatorId) ? Outcome.APPLIED : Outcome.NOT_PERMITTED;
+            case Expire e -> dare.state == State.OPEN ? Outcome.APPLIED : Outcome.INVALID_TRANSITION;
+        };
+    }
+
+    // The state after a command that check() accepted
+    static Lifecycle apply(Lifecycle d, Command command) {
+        return switch (command) {
+            case Create c -> new Lifecycle(c.dareId, State.OPEN, c.creatorId, c.stake, null, null, null, 1);
+            case Accept a -> new Lifecycle(d.dareId, State.ACTIVE, d.creatorId, d.stake, a.userId, null, null, d.version + 1);
+            case SubmitProof p -> new Lifecycle(d.dareId, State.PROOF_SUBMITTED, d.creatorId, d.stake, d.accepterId, p.proofUrl, null, d.version + 1);
+            case Complete c -> new Lifecycle(d.dareId, State.COMPLETED, d.creatorId, d.stake, d.accepterId, d.proofUrl, c.winnerId, d.version + 1);
+            case Cancel c -> new Lifecycle(d.dareId, State.CANCELLED, d.creatorId, d.stake, d.accepterId, d.proofUrl, null, d.version + 1);
+            case Expire e -> new Lifecycle(d.dareId, State.EXPIRED, d.creatorId, d.stake, null, null, null, d.version + 1);
+        };
+    }
+
+    // One tab-separated line per transition, led by a type letter
+    static byte[] encode(Command command) {
+        String line = switch (command) {
+            case Create c -> "C\t" + GroupCommitLog.clean(c.dareId) + '\t' + GroupCommitLog.clean(c.creatorId) + '\t' + c.stake;
+            case Accept a -> "A\t" + GroupCommitLog.clean(a.dareId) + '\t' + GroupCommitLog.clean(a.userId);
+            case SubmitProof p -> "P\t" + GroupCommitLog.clean(p.dareId) + '\t' + GroupCommitLog.clean(p.userId) + '\t' + GroupCommitLog.clean(p.proofUrl);
+            case Complete c -> "F\t" + GroupCommitLog.clean(c.dareId) + '\t' + GroupCommitLog.clean(c.userId) + '\t' + GroupCommitLog.clean(c.winnerId);
+            case Cancel c -> "X\t" + GroupCommitLog.clean(c.dareId) + '\t' + GroupCommitLog.clean(c.userId);
+            case Expire e -> "E\t" + GroupCommitLog.clean(e.dareId);
+        };
+        return (line + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    static Command decode(String line) {
+        String[] f = line.split("\t", -1);
+        try {
+            return switch (f[0]) {
+                case "C" -> f.length == 4 ? new Create(f[1], f[2], Integer.parseInt(f[3])) : null;
+                case "A" -> f.length == 3 ? new Accept(f[1], f[2]) : null;
+                case "P" -> f.length == 4 ? new SubmitProof(f[1], f[2], f[3].isEmpty() ? null : f[3]) : null;
+                case "F" -> f.length == 4 ? new Complete(f[1], f[2], f[3]) : null;
+                case "X" -> f.length == 3 ? new Cancel(f[1], f[2]) : null;
+                case "E" -> f.length == 2 ? new Expire(f[1]) : null;
+                default -> null;
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Shard implements Runnable {
+        final int index;
+        final Path file;
+        final LinkedTransferQueue<Pending> queue = new LinkedTransferQueue<>();
+        final ConcurrentHashMap<String, Lifecycle> dares = new ConcurrentHashMap<>();
+        final Thread thread;
+        GroupCommitLog log;
+        volatile IOException failure;
+
+        Shard(int index, Path file) {
+            this.index = index;
+            this.file = file;
+            this.thread = new Thread(this, "dare-shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        // Replays the log; the GroupCommitLog cuts off a torn final line before appending
+        void open() throws IOException {
+            log = new GroupCommitLog(file, "dare-wal-" + index, line -> {
+                Command command = decode(line);
+                Lifecycle current = command == null ? null : dares.get(command.dareId());
+                if (command != null && check(current, command) == Outcome.APPLIED) {
+                    dares.put(command.dareId(), apply(current, command));
+                }
+            });
+        }
+
+        void closeChannel() throws IOException {
+            if (log != null) log.close();
+        }
+
+        @Override
+        public void run() {
+            List<Pending> batch = new ArrayList<>(Math.min(maxBatch, 1024));
+            Map<String, Lifecycle> staged = new HashMap<>();
+            List<Outcome> outcomes = new ArrayList<>();
+            List<Lifecycle> results = new ArrayList<>();
+            while (!(closed && queue.isEmpty())) {
+                Pending first;
+                try {
+                    first = queue.poll(50, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                try {
+                    if (failure != null) throw failure;
+                    long lastSeq = -1;
+                    for (Pending p : batch) {
+                        String id = p.command.dareId();
+                        Lifecycle current = staged.containsKey(id) ? staged.get(id) : dares.get(id);
+                        Outcome outcome;
+                        try {
+                            outcome = check(current, p.command);
+                        } catch (RuntimeException e) {
+                            // A malformed command (e.g. a null user id) fails alone
+                            outcome = null;
+                            p.future.completeExceptionally(e);
+                        }
+                        outcomes.add(outcome);
+                        if (outcome != Outcome.APPLIED) {
+                            results.add(null);
+                            continue;
+                        }
+                        Lifecycle next = apply(current, p.command);
+                        staged.put(id, next);
+                        results.add(next);
+                        lastSeq = log.append(encode(p.command));
+                    }
+                    if (lastSeq >= 0) {
+                        try {
+                            log.awaitDurable(lastSeq);
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException("Interrupted while forcing " + file);
+                        }
+                        dares.putAll(staged);
+                    }
+                    // Rejections wait for the force too: they may rest on an earlier command of this batch
+                    for (int i = 0; i < batch.size(); i++) {
+                        Pending p = batch.get(i);
+                        Outcome outcome = outcomes.get(i);
+                        if (outcome == null) continue;
+                        if (outcome == Outcome.APPLIED && listener != null) {
+                            try {
+                                listener.accept(p.command, results.get(i));
+                            } catch (RuntimeException e) {
+                                System.err.println("Dare lifecycle listener failed: " + e);
+                            }
+                        }
+                        p.future.complete(outcome);
+                    }
+                } catch (IOException e) {
+                    // Nothing after the last force was acknowledged; the shard fails every later command
+                    if (failure == null) System.err.println("Dare log " + file + " failed: " + e.getMessage());
+                    failure = e;
+                    for (Pending p : batch) p.future.completeExceptionally(e);
+                }
+                batch.clear();
+                outcomes.clear();
+                results.clear();
+                staged.clear();
+            }
+            // Submissions racing with close() get a definite answer rather than hanging
+            for (Pending p; (p = queue.poll()) != null; ) {
+                p.future.completeExceptionally(new IllegalStateException("Dare lifecycle is closed"));
+            }
+        }
+    }
+}
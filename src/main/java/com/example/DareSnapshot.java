@@ -0,0 +1,320 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Versioned, columnar on-disk snapshot of dares, read in place through a MappedByteBuffer.
+//
+// Layout (big-endian):
+//   header   magic "DARS", u16 version, u16 reserved, i32 dareCount, i32 userCount, i32 statusCount,
+//            then one i64 offset per section in the order below
+//   ids      string table: i32[dareCount + 1] end offsets after a leading 0, then UTF-8 bytes; a null
+//            entry stores ~end (-1 when it comes first)
+//   titles   string table
+//   users    string table (dictionary of every creator, participant and winner id)
+//   statuses string table (dictionary, at most 255 entries)
+//   creator  i32[dareCount]  user index, -1 for none
+//   status   u8[dareCount]   status index, NULL_STATUS for none
+//   deadline i64[dareCount]  deadline as epoch millis of the local date-time read as UTC, NO_DEADLINE for none
+//   stake    i32[dareCount]
+//   winner   i32[dareCount]  user index, -1 for none
+//   partOffs i32[dareCount + 1] start of each dare's participants
+//   parts    i32[...]        user indexes
+//
+// Fields are read straight from the mapping, so opening is O(1) and only dares that are
+// actually looked at get decoded. Files are limited to 2 GB (one mapping).
+class DareSnapshot {
+    static final int MAGIC = 0x44415253; // "DARS"
+    // Version 1 wrote null titles and statuses as ""; it reads the same otherwise
+    static final short VERSION = 2;
+    static final long NO_DEADLINE = Long.MIN_VALUE;
+    static final byte NULL_STATUS = (byte) 0xFF;
+
+    private static final int SECTIONS = 11;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 4 + 4 + SECTIONS * 8;
+    private static final int IDS = 0, TITLES = 1, USERS = 2, STATUSES = 3, CREATOR = 4, STATUS = 5,
+        DEADLINE = 6, STAKE = 7, WINNER = 8, PART_OFFSETS = 9, PARTS = 10;
+
+    private final MappedByteBuffer buf;
+    private final int dareCount;
+    private final int userCount;
+    private final int[] offsets = new int[SECTIONS];
+    private final String[] statuses;
+    private Map<String, Integer> userIndex;
+
+    private DareSnapshot(MappedByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+            throw new IOException("Not a dare snapshot");
+        }
+        short version = buf.getShort(4);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported dare snapshot version " + version);
+        }
+        dareCount = buf.getInt(8);
+        userCount = buf.getInt(12);
+        int statusCount = buf.getInt(16);
+        for (int s = 0; s < SECTIONS; s++) {
+            long offset = buf.getLong(20 + s * 8);
+            if (offset < HEADER_SIZE || offset > buf.capacity()) throw new IOException("Corrupt dare snapshot section " + s);
+            offsets[s] = (int) offset;
+        }
+        statuses = new String[statusCount];
+        for (int i = 0; i < statusCount; i++) statuses[i] = string(STATUSES, i);
+    }
+
+    static DareSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Dare snapshot larger than 2 GB: " + file);
+            // The mapping stays valid after the channel is closed
+            return new DareSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int size() {
+        return dareCount;
+    }
+
+    int userCount() {
+        return userCount;
+    }
+
+    String id(int dare) {
+        return string(IDS, dare);
+    }
+
+    String title(int dare) {
+        return string(TITLES, dare);
+    }
+
+    String user(int userIndex) {
+        return string(USERS, userIndex);
+    }
+
+    // Dictionary index of a user id, or -1; the lookup map is built on first use
+    synchronized int findUser(String userId) {
+        if (userIndex == null) {
+            userIndex = new HashMap<>(userCount * 2);
+            for (int u = 0; u < userCount; u++) userIndex.put(user(u), u);
+        }
+        return userIndex.getOrDefault(userId, -1);
+    }
+
+    int creator(int dare) {
+        return buf.getInt(offsets[CREATOR] + dare * 4);
+    }
+
+    byte statusCode(int dare) {
+        return buf.get(offsets[STATUS] + dare);
+    }
+
+    String status(int dare) {
+        byte code = statusCode(dare);
+        return code == NULL_STATUS ? null : statuses[code & 0xFF];
+    }
+
+    long deadlineMillis(int dare) {
+        return buf.getLong(offsets[DEADLINE] + dare * 8);
+    }
+
+    LocalDateTime deadline(int dare) {
+        long millis = deadlineMillis(dare);
+        return millis == NO_DEADLINE ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    int entryStake(int dare) {
+        return buf.getInt(offsets[STAKE] + dare * 4);
+    }
+
+    int winner(int dare) {
+        return buf.getInt(offsets[WINNER] + dare * 4);
+    }
+
+    int participantCount(int dare) {
+        return buf.getInt(offsets[PART_OFFSETS] + (dare + 1) * 4) - buf.getInt(offsets[PART_OFFSETS] + dare * 4);
+    }
+
+    int participant(int dare, int k) {
+        int start = buf.getInt(offsets[PART_OFFSETS] + dare * 4);
+        return buf.getInt(offsets[PARTS] + (start + k) * 4);
+    }
+
+    Dare toDare(int dare) {
+        int count = participantCount(dare);
+        String[] participants = new String[count];
+        for (int k = 0; k < count; k++) participants[k] = user(participant(dare, k));
+        int creator = creator(dare);
+        int winner = winner(dare);
+        return new Dare(id(dare), title(dare), creator < 0 ? null : user(creator), status(dare),
+            participants, deadline(dare), entryStake(dare), winner < 0 ? null : user(winner));
+    }
+
+    private String string(int section, int index) {
+        int base = offsets[section];
+        int end = buf.getInt(base + (index + 1) * 4);
+        if (end < 0) return null;
+        int start = buf.getInt(base + index * 4);
+        if (start < 0) start = ~start;
+        int count = buf.getInt(base - 4); // string tables are prefixed with their entry count
+        byte[] bytes = new byte[end - start];
+        buf.get(base + (count + 1) * 4 + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Writes the dares to `file` atomically (temp file + move)
+    static void write(Path file, Collection<Dare> dares) throws IOException {
+        int n = dares.size();
+        Map<String, Integer> users = new LinkedHashMap<>();
+        Map<String, Integer> statusIds = new LinkedHashMap<>();
+        List<String> ids = new ArrayList<>(n), titles = new ArrayList<>(n);
+        for (Dare dare : dares) {
+            ids.add(dare.id);
+            titles.add(dare.title);
+            if (dare.status != null) statusIds.putIfAbsent(dare.status, statusIds.size());
+            if (dare.creatorId != null) users.putIfAbsent(dare.creatorId, users.size());
+            if (dare.winnerId != null) users.putIfAbsent(dare.winnerId, users.size());
+            for (String p : dare.participants) users.putIfAbsent(p, users.size());
+        }
+        if (statusIds.size() > 255) throw new IllegalArgumentException("More than 255 distinct dare statuses");
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "dares", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel, HEADER_SIZE);
+            long[] sections = new long[SECTIONS];
+
+            sections[IDS] = out.stringTable(ids);
+            sections[TITLES] = out.stringTable(titles);
+            sections[USERS] = out.stringTable(users.keySet());
+            sections[STATUSES] = out.stringTable(statusIds.keySet());
+
+            sections[CREATOR] = out.position();
+            for (Dare dare : dares) out.putInt(dare.creatorId != null ? users.get(dare.creatorId) : -1);
+            sections[STATUS] = out.position();
+            for (Dare dare : dares) out.put(dare.status != null ? (byte) (int) statusIds.get(dare.status) : NULL_STATUS);
+            out.align(8);
+            sections[DEADLINE] = out.position();
+            for (Dare dare : dares) {
+                out.putLong(dare.deadline != null ? dare.deadline.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_DEADLINE);
+            }
+            sections[STAKE] = out.position();
+            for (Dare dare : dares) out.putInt(dare.entryStake);
+            sections[WINNER] = out.position();
+            for (Dare dare : dares) out.putInt(dare.winnerId != null ? users.get(dare.winnerId) : -1);
+            sections[PART_OFFSETS] = out.position();
+            int running = 0;
+            out.putInt(0);
+            for (Dare dare : dares) {
+                running += dare.participants.length;
+                out.putInt(running);
+            }
+            sections[PARTS] = out.position();
+            for (Dare dare : dares) {
+                for (String p : dare.participants) out.putInt(users.get(p));
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putInt(n).putInt(users.size()).putInt(statusIds.size());
+            for (long section : sections) header.putLong(section);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Sequential writer over a 1 MB staging buffer that tracks the file position; FollowGraph uses it too
+    static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer staging = ByteBuffer.allocateDirect(1 << 20);
+        private long position;
+
+        Output(FileChannel channel, long start) {
+            this.channel = channel;
+            this.position = start;
+        }
+
+        long position() {
+            return position + staging.position();
+        }
+
+        // Entry count, offsets, then bytes; returns the offset of the offsets array. Null values are
+        // written as ~offset.
+        long stringTable(Collection<String> values) throws IOException {
+            List<byte[]> encoded = new ArrayList<>(values.size());
+            for (String v : values) encoded.add(v == null ? null : v.getBytes(StandardCharsets.UTF_8));
+            putInt(encoded.size());
+            long table = position();
+            int offset = 0;
+            putInt(0);
+            for (byte[] bytes : encoded) {
+                if (bytes == null) {
+                    putInt(~offset);
+                    continue;
+                }
+                offset += bytes.length;
+                putInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                if (bytes != null) put(bytes);
+            }
+            align(4);
+            return table;
+        }
+
+        void put(byte b) throws IOException {
+            ensure(1);
+            staging.put(b);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int off = 0;
+            while (off < bytes.length) {
+                ensure(1);
+                int len = Math.min(staging.remaining(), bytes.length - off);
+                staging.put(bytes, off, len);
+                off += len;
+            }
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            staging.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            staging.putLong(v);
+        }
+
+        void align(int alignment) throws IOException {
+            while (position() % alignment != 0) put((byte) 0);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (staging.remaining() < bytes) flush();
+        }
+
+        void flush() throws IOException {
+            staging.flip();
+            while (staging.hasRemaining()) {
+                position += channel.write(staging, position);
+            }
+            staging.clear();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// In-memory dare store with secondary indexes by status, creator, participant and deadline.
+// Every dare gets an insertion sequence number; indexes are sorted maps keyed by it, so
+// "newest first" pages are a descending walk from the cursor: O(log n + page).
+// Subscribers get a Change for every write, delivered on the writing thread while it still holds the
+// write lock, so every subscriber sees the changes in version order.
+class DareStore {
+
+    enum ChangeKind { INSERT, UPDATE, REMOVE }
+
+    // status and previousStatus are snapshots of the dare's status after and before the write
+    record Change(ChangeKind kind, Dare dare, String status, String previousStatus, long version) {}
+
+    record Page<T>(List<T> items, String nextCursor) {
+        boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
+
+    // Keeps the indexed field values, so unindexing still works after a caller mutated the Dare
+    private record Entry(long seq, Dare dare, String status, String creatorId, String[] participants, LocalDateTime deadline) {
+        static Entry of(long seq, Dare dare) {
+            return new Entry(seq, dare, dare.status, dare.creatorId, dare.participants.clone(), dare.deadline);
+        }
+    }
+
+    private record DeadlineKey(LocalDateTime deadline, long seq) implements Comparable<DeadlineKey> {
+        @Override
+        public int compareTo(DeadlineKey o) {
+            int c = deadline.compareTo(o.deadline);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> byId = new HashMap<>();
+    private final NavigableMap<Long, Dare> all = new TreeMap<>();
+    private final Map<String, NavigableMap<Long, Dare>> byStatus = new HashMap<>();
+    private final Map<String, NavigableMap<Long, Dare>> byCreator = new HashMap<>();
+    private final Map<String, NavigableMap<Long, Dare>> byParticipant = new HashMap<>();
+    private final Map<String, NavigableMap<Long, Dare>> byStatusAndParticipant = new HashMap<>();
+    private final NavigableMap<DeadlineKey, Dare> byDeadline = new TreeMap<>();
+    private long nextSeq;
+    // Bumped by every write; readers use it as a cheap "has anything changed" check (ETags)
+    private volatile long version;
+    private final List<Consumer<Change>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Inserts a dare, or replaces the one with the same id while keeping its position in the feed
+    void put(Dare dare) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = byId.get(dare.id);
+            long seq = previous != null ? previous.seq : nextSeq++;
+            if (previous != null) unindex(previous);
+            Entry entry = Entry.of(seq, dare);
+            byId.put(dare.id, entry);
+            index(entry);
+            publish(new Change(previous == null ? ChangeKind.INSERT : ChangeKind.UPDATE, dare, entry.status,
+                previous == null ? null : previous.status, ++version));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(Collection<Dare> dares) {
+        for (Dare dare : dares) put(dare);
+    }
+
+    boolean updateStatus(String dareId, String status) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = byId.get(dareId);
+            if (entry == null) return false;
+            unindex(entry);
+            entry.dare.status = status;
+            Entry updated = Entry.of(entry.seq, entry.dare);
+            byId.put(dareId, updated);
+            index(updated);
+            publish(new Change(ChangeKind.UPDATE, entry.dare, status, entry.status, ++version));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Dare remove(String dareId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = byId.remove(dareId);
+            if (entry == null) return null;
+            unindex(entry);
+            publish(new Change(ChangeKind.REMOVE, entry.dare, entry.status, entry.status, ++version));
+            return entry.dare;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the unsubscribe action. Listeners run under the write lock: hand off, never call back into the store.
+    Runnable subscribe(Consumer<Change> listener) {
+        subscribers.add(listener);
+        return () -> subscribers.remove(listener);
+    }
+
+    private void publish(Change change) {
+        for (Consumer<Change> subscriber : subscribers) {
+            subscriber.accept(change);
+        }
+    }
+
+    Dare get(String dareId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byId.get(dareId);
+            return entry != null ? entry.dare : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every dare in insertion order
+    List<Dare> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(all.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // O(log n) membership check through the participant index instead of scanning dare.participants
+    boolean isParticipant(Dare dare, String userId) {
+        if (userId == null) return false;
+        lock.readLock().lock();
+        try {
+            Entry entry = byId.get(dare.id);
+            if (entry == null) return Arrays.asList(dare.participants).contains(userId);
+            NavigableMap<Long, Dare> dares = byParticipant.get(userId);
+            return dares != null && dares.containsKey(entry.seq);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Page<Dare> newest(String cursor, int limit) {
+        return page(all, cursor, limit);
+    }
+
+    Page<Dare> byStatus(String status, String cursor, int limit) {
+        return page(byStatus, status, cursor, limit);
+    }
+
+    Page<Dare> byCreator(String creatorId, String cursor, int limit) {
+        return page(byCreator, creatorId, cursor, limit);
+    }
+
+    Page<Dare> byParticipant(String userId, String cursor, int limit) {
+        return page(byParticipant, userId, cursor, limit);
+    }
+
+    // e.g. "completed dares for user X, newest first, page of 50"
+    Page<Dare> byStatusAndParticipant(String status, String userId, String cursor, int limit) {
+        return page(byStatusAndParticipant, statusParticipantKey(status, userId), cursor, limit);
+    }
+
+    // Dares with a deadline strictly before the given time, earliest deadline first
+    Page<Dare> deadlineBefore(LocalDateTime before, String cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<DeadlineKey, Dare> range = byDeadline.headMap(new DeadlineKey(before, Long.MIN_VALUE), false);
+            if (cursor != null) range = range.tailMap(decodeDeadlineCursor(cursor), false);
+            List<Dare> items = new ArrayList<>(Math.min(limit, 64));
+            DeadlineKey last = null;
+            for (Map.Entry<DeadlineKey, Dare> e : range.entrySet()) {
+                if (items.size() == limit) {
+                    return new Page<>(items, encodeDeadlineCursor(last));
+                }
+                items.add(e.getValue());
+                last = e.getKey();
+            }
+            return new Page<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page<Dare> page(Map<String, NavigableMap<Long, Dare>> index, String key, String cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Dare> dares = index.get(key);
+            return dares != null ? walk(dares, cursor, limit) : new Page<>(List.of(), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page<Dare> page(NavigableMap<Long, Dare> dares, String cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            return walk(dares, cursor, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Page<Dare> walk(NavigableMap<Long, Dare> dares, String cursor, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive: " + limit);
+        NavigableMap<Long, Dare> range = cursor == null
+            ? dares.descendingMap()
+            : dares.headMap(Long.parseLong(cursor), false).descendingMap();
+        List<Dare> items = new ArrayList<>(Math.min(limit, 64));
+        long last = -1;
+        for (Map.Entry<Long, Dare> e : range.entrySet()) {
+            if (items.size() == limit) {
+                return new Page<>(items, Long.toString(last));
+            }
+            items.add(e.getValue());
+            last = e.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    private void index(Entry entry) {
+        all.put(entry.seq, entry.dare);
+        if (entry.status != null) add(byStatus, entry.status, entry);
+        if (entry.creatorId != null) add(byCreator, entry.creatorId, entry);
+        for (String participant : entry.participants) {
+            add(byParticipant, participant, entry);
+            if (entry.status != null) add(byStatusAndParticipant, statusParticipantKey(entry.status, participant), entry);
+        }
+        if (entry.deadline != null) byDeadline.put(new DeadlineKey(entry.deadline, entry.seq), entry.dare);
+    }
+
+    private void unindex(Entry entry) {
+        all.remove(entry.seq);
+        if (entry.status != null) remove(byStatus, entry.status, entry);
+        if (entry.creatorId != null) remove(byCreator, entry.creatorId, entry);
+        for (String participant : entry.participants) {
+            remove(byParticipant, participant, entry);
+            if (entry.status != null) remove(byStatusAndParticipant, statusParticipantKey(entry.status, participant), entry);
+        }
+        if (entry.deadline != null) byDeadline.remove(new DeadlineKey(entry.deadline, entry.seq));
+    }
+
+    private static void add(Map<String, NavigableMap<Long, Dare>> index, String key, Entry entry) {
+        index.computeIfAbsent(key, k -> new TreeMap<>()).put(entry.seq, entry.dare);
+    }
+
+    private static void remove(Map<String, NavigableMap<Long, Dare>> index, String key, Entry entry) {
+        NavigableMap<Long, Dare> dares = index.get(key);
+        if (dares == null) return;
+        dares.remove(entry.seq);
+        if (dares.isEmpty()) index.remove(key);
+    }
+
+    private static String statusParticipantKey(String status, String userId) {
+        return status + '\u0000' + userId;
+    }
+
+    private static String encodeDeadlineCursor(DeadlineKey key) {
+        return key.deadline + "|" + key.seq;
+    }
+
+    private static DeadlineKey decodeDeadlineCursor(String cursor) {
+        int sep = cursor.lastIndexOf('|');
+        if (sep < 0) throw new IllegalArgumentException("Malformed deadline cursor: " + cursor);
+        return new DeadlineKey(LocalDateTime.parse(cursor.substring(0, sep)), Long.parseLong(cursor.substring(sep + 1)));
+    }
+}
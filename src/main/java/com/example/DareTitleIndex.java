@@ -0,0 +1,427 @@
+package com.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trigram index over dare titles for the search screen. Titles are normalized (lower case, accents and
+// apostrophes dropped, "110,000" read as "110000", anything else that is not a letter or digit is a
+// word break) and padded with spaces, so " bi" marks a word start. Every dare gets a dense doc id in
+// insertion order; each trigram's posting list holds those ids delta + varint coded in a byte array,
+// in blocks of 64 whose first ids are kept aside, so a list can be walked newest first and probed for
+// one id by decoding a single block.
+//
+// A query matches a title when every query word occurs in it: words of three or more characters as
+// substrings, shorter ones as word prefixes. The shortest list drives newest first and the others are
+// probed until MAX_MATCHES matches are found, so this is a recency-window search: only the MAX_MATCHES
+// newest matching dares are ranked (whole word > word prefix > inside a word, then shorter titles, then
+// newer dares), and an older dare never shows up for a query that more than MAX_MATCHES newer dares
+// match, even with an exact title. Ranking every match would cost time in proportion to all of them,
+// 100k+ for a common word. Matches with the same normalized title, or nearly the same (trigram
+// Jaccard >= NEAR_DUPLICATE, estimated from a MINHASHES-value MinHash signature computed at indexing
+// time), collapse into one group under the best-ranked dare.
+class DareTitleIndex {
+    static final int MAX_MATCHES = 256;
+    static final double NEAR_DUPLICATE = 0.7;
+
+    private static final int BLOCK = 64;
+    private static final int MINHASHES = 16;
+
+    // duplicates are the other matching dares collapsed into this one, best ranked first
+    record Group(Dare dare, List<Dare> duplicates) {}
+
+    private record Hit(int doc, double score) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docOf = new HashMap<>();
+    private final GramMap grams = new GramMap();
+    private Dare[] docs = new Dare[1024];
+    private String[] titles = new String[1024];
+    private int[] signatures = new int[1024 * MINHASHES];
+    private int nextDoc;
+
+    // Indexes the store's dares and keeps following it. Subscribes first, so nothing written in
+    // between is missed; indexing the same dare twice is a no-op.
+    static DareTitleIndex attach(DareStore store) {
+        DareTitleIndex index = new DareTitleIndex();
+        store.subscribe(change -> {
+            if (change.kind() == DareStore.ChangeKind.REMOVE) {
+                index.remove(change.dare().id);
+            } else {
+                index.put(change.dare());
+            }
+        });
+        for (Dare dare : store.all()) index.put(dare);
+        return index;
+    }
+
+    // Adds a dare, or re-indexes it under a new doc id when its title changed
+    void put(Dare dare) {
+        String title = normalize(dare.title);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docOf.get(dare.id);
+            if (existing != null) {
+                if (titles[existing].equals(title)) {
+                    docs[existing] = dare;
+                    return;
+                }
+                docs[existing] = null;
+            }
+            int doc = nextDoc++;
+            if (doc == docs.length) {
+                docs = Arrays.copyOf(docs, doc * 2);
+                titles = Arrays.copyOf(titles, doc * 2);
+                signatures = Arrays.copyOf(signatures, doc * 2 * MINHASHES);
+            }
+            docs[doc] = dare;
+            titles[doc] = title;
+            docOf.put(dare.id, doc);
+            long[] titleGrams = titleGrams(title);
+            for (long gram : titleGrams) grams.postings(gram).add(doc);
+            sign(titleGrams, signatures, doc * MINHASHES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removed dares stay in the posting lists as tombstones that queries skip
+    void remove(String dareId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docOf.remove(dareId);
+            if (doc != null) docs[doc] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The best `limit` groups among the MAX_MATCHES newest matching dares, not among all matches
+    List<Group> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return List.of();
+        String[] terms = normalized.split(" ");
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String term : terms) {
+                for (long gram : queryGrams(term)) {
+                    Postings postings = grams.get(gram);
+                    if (postings == null) return List.of();
+                    if (!lists.contains(postings)) lists.add(postings);
+                }
+            }
+            lists.sort((a, b) -> Integer.compare(a.count, b.count));
+            Postings driver = lists.get(0);
+            Probe[] probes = new Probe[lists.size() - 1];
+            for (int i = 1; i < lists.size(); i++) probes[i - 1] = new Probe(lists.get(i));
+
+            List<Hit> hits = new ArrayList<>();
+            int[] block = new int[BLOCK];
+            for (int b = driver.blocks() - 1; b >= 0 && hits.size() < MAX_MATCHES; b--) {
+                for (int k = driver.decode(b, block) - 1; k >= 0 && hits.size() < MAX_MATCHES; k--) {
+                    int doc = block[k];
+                    if (docs[doc] == null || !containsAll(probes, doc)) continue;
+                    // Trigrams only narrow it down; the title itself decides
+                    double score = score(titles[doc], normalized, terms);
+                    if (score > 0) hits.add(new Hit(doc, score));
+                }
+            }
+            hits.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Integer.compare(b.doc, a.doc));
+            return group(hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsAll(Probe[] probes, int doc) {
+        for (Probe probe : probes) {
+            if (!probe.contains(doc)) return false;
+        }
+        return true;
+    }
+
+    // Per word: 3 for a whole-word match, 2 for a word prefix, 1 inside a word, 0 (no match) if any
+    // word is missing; a title equal to the query ranks first, shorter titles before longer ones
+    private static double score(String title, String query, String[] terms) {
+        if (title.equals(query)) return 1000;
+        double score = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int at = title.indexOf(term); at >= 0 && best < 3; at = title.indexOf(term, at + 1)) {
+                boolean start = at == 0 || title.charAt(at - 1) == ' ';
+                boolean end = at + term.length() == title.length() || title.charAt(at + term.length()) == ' ';
+                int kind = start ? (end ? 3 : 2) : 1;
+                // Short words only match at a word start
+                if (term.length() < 3 && !start) kind = 0;
+                best = Math.max(best, kind);
+            }
+            if (best == 0) return 0;
+            score += best;
+        }
+        return score + 1.0 / (1 + title.length());
+    }
+
+    private List<Group> group(List<Hit> hits, int limit) {
+        List<Group> groups = new ArrayList<>();
+        List<Integer> groupDocs = new ArrayList<>();
+        Map<String, Group> byTitle = new HashMap<>();
+        for (Hit hit : hits) {
+            String title = titles[hit.doc];
+            Dare dare = docs[hit.doc];
+            Group same = byTitle.get(title);
+            if (same != null) {
+                same.duplicates.add(dare);
+                continue;
+            }
+            // Past the last group that is returned only exact duplicates still need attaching
+            if (groups.size() == limit) continue;
+            Group near = null;
+            for (int i = 0; i < groups.size() && near == null; i++) {
+                if (similarity(hit.doc, groupDocs.get(i)) >= NEAR_DUPLICATE) near = groups.get(i);
+            }
+            if (near != null) {
+                near.duplicates.add(dare);
+                byTitle.put(title, near);
+            } else {
+                Group group = new Group(dare, new ArrayList<>());
+                groups.add(group);
+                groupDocs.add(hit.doc);
+                byTitle.put(title, group);
+            }
+        }
+        return groups;
+    }
+
+    // Share of equal MinHash values: an estimate of the Jaccard similarity of the two trigram sets
+    private double similarity(int a, int b) {
+        int equal = 0;
+        for (int k = 0; k < MINHASHES; k++) {
+            if (signatures[a * MINHASHES + k] == signatures[b * MINHASHES + k]) equal++;
+        }
+        return (double) equal / MINHASHES;
+    }
+
+    private static void sign(long[] titleGrams, int[] out, int at) {
+        Arrays.fill(out, at, at + MINHASHES, Integer.MAX_VALUE);
+        for (long gram : titleGrams) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            for (int k = 0; k < MINHASHES; k++) {
+                // One cheap re-mix per signature slot
+                h = (h ^ h >>> 29) * 0xBF58476D1CE4E5B9L + k;
+                int v = (int) (h >>> 33);
+                if (v < out[at + k]) out[at + k] = v;
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        // Decomposing is only needed to strip accents; most titles are plain ASCII
+        String s = text.chars().allMatch(c -> c < 0x80) ? text : Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean space = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == '\'' || c == '’') continue;
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if ((c == ',' || c == '.') && i > 0 && i + 1 < s.length()
+                && Character.isDigit(s.charAt(i - 1)) && Character.isDigit(s.charAt(i + 1))) {
+                // Thousands separators and decimal points stay inside the number
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        if (space && !sb.isEmpty()) sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    // Every trigram of " title " plus a word-start bigram per word, sorted and distinct
+    private static long[] titleGrams(String title) {
+        String padded = " " + title + " ";
+        long[] g = new long[Math.max(0, padded.length() - 2) + padded.length()];
+        int n = 0;
+        for (int i = 0; i + 2 < padded.length(); i++) {
+            g[n++] = gram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+            if (padded.charAt(i) == ' ') g[n++] = gram(' ', padded.charAt(i + 1), '\0');
+        }
+        long[] sorted = Arrays.copyOf(g, n);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[distinct++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    // Substring trigrams for words of three or more characters, the word-start gram for shorter ones
+    private static long[] queryGrams(String term) {
+        if (term.length() == 1) return new long[]{gram(' ', term.charAt(0), '\0')};
+        if (term.length() == 2) return new long[]{gram(' ', term.charAt(0), term.charAt(1))};
+        long[] g = new long[term.length() - 2];
+        for (int i = 0; i < g.length; i++) g[i] = gram(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2));
+        return g;
+    }
+
+    private static long gram(char a, char b, char c) {
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    // One trigram's doc ids, ascending: blockFirst holds the first id of every BLOCK ids, data the
+    // varint gaps between the rest, starting at blockOffset
+    private static final class Postings {
+        private byte[] data = new byte[4];
+        private int size;
+        private int[] blockFirst = new int[1];
+        private int[] blockOffset = new int[1];
+        private int count;
+        private int last = -1;
+
+        // Doc ids arrive in increasing order
+        void add(int doc) {
+            if (doc == last) return;
+            if (count % BLOCK == 0) {
+                int b = count / BLOCK;
+                if (b == blockFirst.length) {
+                    blockFirst = Arrays.copyOf(blockFirst, b * 2);
+                    blockOffset = Arrays.copyOf(blockOffset, b * 2);
+                }
+                blockFirst[b] = doc;
+                blockOffset[b] = size;
+            } else {
+                int gap = doc - last;
+                if (size + 5 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+                while ((gap & ~0x7F) != 0) {
+                    data[size++] = (byte) (gap & 0x7F | 0x80);
+                    gap >>>= 7;
+                }
+                data[size++] = (byte) gap;
+            }
+            last = doc;
+            count++;
+        }
+
+        int blocks() {
+            return (count + BLOCK - 1) / BLOCK;
+        }
+
+        int decode(int block, int[] out) {
+            int n = Math.min(BLOCK, count - block * BLOCK);
+            int doc = blockFirst[block];
+            out[0] = doc;
+            int p = blockOffset[block];
+            for (int k = 1; k < n; k++) {
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[p++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                doc += gap;
+                out[k] = doc;
+            }
+            return n;
+        }
+
+        // Index of the last block starting at or before doc, -1 if none
+        int blockOf(int doc) {
+            int lo = 0, hi = blocks() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (blockFirst[mid] <= doc) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            return hi;
+        }
+    }
+
+    // Membership checks against one list, keeping the last decoded block for the next doc
+    private static final class Probe {
+        private final Postings postings;
+        private final int[] docs = new int[BLOCK];
+        private int block = -1;
+        private int n;
+
+        Probe(Postings postings) {
+            this.postings = postings;
+        }
+
+        // Docs come in descending order, so the block decoded last usually still covers the next one
+        boolean contains(int doc) {
+            if (block < 0 || doc < docs[0] || doc > docs[n - 1] && block + 1 < postings.blocks()) {
+                int b = postings.blockOf(doc);
+                if (b < 0) return false;
+                if (b != block) {
+                    n = postings.decode(b, docs);
+                    block = b;
+                }
+            }
+            return Arrays.binarySearch(docs, 0, n, doc) >= 0;
+        }
+    }
+
+    // Open-addressing map from gram to posting list, so indexing does not box a Long per gram
+    private static final class GramMap {
+        private long[] keys = new long[1 << 12];
+        private Postings[] values = new Postings[1 << 12];
+        private int size;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return null;
+        }
+
+        Postings postings(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            Postings postings = new Postings();
+            keys[i] = key;
+            values[i] = postings;
+            if (++size * 2 > keys.length) resize();
+            return postings;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] == null) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+
+// ChunkStore on a local directory, for development and tests:
+//   chunks/ab/abcd...   chunk bytes, named by their SHA-256 (fanned out by the first two hex digits)
+//   uploads/<id>.log    checkpoints, one "index<TAB>hash" line per chunk, appended and forced per chunk
+//   files/<hash>.txt    finished file: its size, then its chunk hashes, one per line
+// Chunks are forced before they are checkpointed and renamed into place, so a crash leaves either
+// the whole chunk or none of it, and a torn last checkpoint line is ignored. A log whose indexes are
+// not 0..n-1 in order is discarded, so the upload starts over rather than resuming at the wrong offset.
+class DirectoryChunkStore implements ProofUploader.ChunkStore {
+    record Manifest(long size, List<String> chunkHashes) {}
+
+    private final Path root;
+
+    DirectoryChunkStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public boolean contains(String chunkHash) {
+        return Files.isRegularFile(chunkFile(chunkHash));
+    }
+
+    @Override
+    public void put(String chunkHash, ByteBuffer data) throws IOException {
+        Path file = chunkFile(chunkHash);
+        if (Files.isRegularFile(file)) return;
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "chunk", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer view = data.duplicate();
+            while (view.hasRemaining()) channel.write(view);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public List<String> checkpoints(String uploadId) throws IOException {
+        Path file = uploadLog(uploadId);
+        byte[] log;
+        try {
+            log = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        List<String> hashes = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < log.length; i++) {
+            if (log[i] != '\n') continue;
+            String line = new String(log, start, i - start, StandardCharsets.US_ASCII);
+            start = i + 1;
+            int tab = line.indexOf('\t');
+            if (tab < 0 || !line.substring(0, tab).equals(Integer.toString(hashes.size()))) {
+                System.err.println("Discarding out-of-order proof upload checkpoints " + file);
+                Files.deleteIfExists(file);
+                return List.of();
+            }
+            hashes.add(line.substring(tab + 1));
+        }
+        return hashes;
+    }
+
+    @Override
+    public void checkpoint(String uploadId, int chunk, String chunkHash) throws IOException {
+        Path log = uploadLog(uploadId);
+        Files.createDirectories(log.getParent());
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Cut a line torn by an earlier crash, so the new one starts on its own line
+            long end = channel.size();
+            ByteBuffer last = ByteBuffer.allocate(1);
+            while (end > 0) {
+                last.clear();
+                channel.read(last, end - 1);
+                if (last.get(0) == '\n') break;
+                end--;
+            }
+            if (end != channel.size()) channel.truncate(end);
+            channel.write(ByteBuffer.wrap((chunk + "\t" + chunkHash + "\n").getBytes(StandardCharsets.US_ASCII)), end);
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void finish(String uploadId, String fileHash, long size, List<String> chunkHashes) throws IOException {
+        Path manifest = manifestFile(fileHash);
+        Files.createDirectories(manifest.getParent());
+        StringBuilder text = new StringBuilder().append(size).append('\n');
+        for (String hash : chunkHashes) text.append(hash).append('\n');
+        Path tmp = Files.createTempFile(manifest.getParent(), "file", ".tmp");
+        try {
+            Files.writeString(tmp, text, StandardCharsets.US_ASCII);
+            Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.deleteIfExists(uploadLog(uploadId));
+    }
+
+    // Null if no file with that hash was finished
+    Manifest manifest(String fileHash) throws IOException {
+        Path file = manifestFile(fileHash);
+        if (!Files.isRegularFile(file)) return null;
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        return new Manifest(Long.parseLong(lines.get(0)), List.copyOf(lines.subList(1, lines.size())));
+    }
+
+    // The finished file's bytes, streamed chunk by chunk
+    InputStream open(String fileHash) throws IOException {
+        Manifest manifest = manifest(fileHash);
+        if (manifest == null) throw new NoSuchFileException("No proof file " + fileHash + " in " + root);
+        Iterator<String> chunks = manifest.chunkHashes().iterator();
+        // Opens each chunk only when the previous one is used up
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return Files.newInputStream(chunkFile(chunks.next()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    private Path chunkFile(String chunkHash) {
+        return root.resolve("chunks").resolve(chunkHash.substring(0, 2)).resolve(chunkHash);
+    }
+
+    private Path uploadLog(String uploadId) {
+        return root.resolve("uploads").resolve(uploadId + ".log");
+    }
+
+    private Path manifestFile(String fileHash) {
+        return root.resolve("files").resolve(fileHash + ".txt");
+    }
+}
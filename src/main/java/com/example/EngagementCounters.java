@@ -0,0 +1,237 @@
+package com.example;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// Per-post view/like/comment/share counters for hot posts, with the milestone and engagement
+// rewards of RewardsEngine.RewardConfig. Like a LongAdder, a post counts into one small array until
+// a CAS on it fails; from then on events land in per-thread stripes of a padded cell array, so
+// concurrent increments on a hot post do not share a cache line. flush() (periodic via start)
+// drains the stripes of every post touched since the last flush, hands one Delta per post to the
+// sink and credits the ledger once per post and engagement type instead of once per event.
+// Milestones are exact: stripes are folded into a post's total with getAndAdd, and views within
+// EXACT_WINDOW of the next milestone go straight to the total with getAndIncrement. Either way each
+// caller owns a disjoint range of the count, so exactly one caller crosses each threshold. As in
+// RewardsEngine, a fold that crosses several thresholds credits every one of them.
+class EngagementCounters {
+    static final String[] ENGAGEMENT_TYPES = {"like", "comment", "share"};
+    private static final int VIEW = 3;
+    // One cache line (8 longs) per stripe: the four kinds plus padding
+    private static final int STRIDE = 8;
+    // A power of two of at least twice the CPU count, within [4, 64]
+    private static final int STRIPES = Math.max(4, Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) * 2));
+    private static final long EXACT_WINDOW = 64;
+
+    // Counts added since the previous flush; views includes the ones counted exactly
+    record Delta(String postId, String authorId, long views, long likes, long comments, long shares) {}
+
+    record FlushStats(int posts, long events, int credits) {}
+
+    private static final class Post {
+        final String postId, authorId;
+        final AtomicLongArray base = new AtomicLongArray(VIEW + 1);
+        // Allocated on the first contended increment
+        volatile AtomicLongArray cells;
+        final AtomicLong views = new AtomicLong();
+        // Views at or above this go to the exact total; Long.MAX_VALUE once no milestone is left
+        volatile long exactFrom;
+        volatile boolean dirty;
+        // Only touched by the flushing thread
+        long flushedViews;
+
+        Post(String postId, String authorId, long exactFrom) {
+            this.postId = postId;
+            this.authorId = authorId;
+            this.exactFrom = exactFrom;
+        }
+
+        void increment(int kind) {
+            AtomicLongArray striped = cells;
+            if (striped == null) {
+                long count = base.get(kind);
+                if (base.compareAndSet(kind, count, count + 1)) return;
+                striped = inflate();
+            }
+            striped.getAndIncrement(stripe() + kind);
+        }
+
+        private synchronized AtomicLongArray inflate() {
+            if (cells == null) cells = new AtomicLongArray(STRIPES * STRIDE);
+            return cells;
+        }
+
+        long drain(int kind) {
+            long count = base.get(kind) != 0 ? base.getAndSet(kind, 0) : 0;
+            AtomicLongArray striped = cells;
+            if (striped != null) {
+                for (int i = kind; i < striped.length(); i += STRIDE) {
+                    if (striped.get(i) != 0) count += striped.getAndSet(i, 0);
+                }
+            }
+            return count;
+        }
+
+        long pending(int kind) {
+            long count = base.get(kind);
+            AtomicLongArray striped = cells;
+            if (striped != null) {
+                for (int i = kind; i < striped.length(); i += STRIDE) count += striped.get(i);
+            }
+            return count;
+        }
+    }
+
+    private final RewardsEngine.RewardConfig config;
+    private final int[] engagementRewards = new int[ENGAGEMENT_TYPES.length];
+    private final RewardLedger ledger;
+    private final Consumer<List<Delta>> sink;
+    private final ConcurrentHashMap<String, Post> posts = new ConcurrentHashMap<>();
+    private final Set<Post> dirty = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<RewardLedger.Credit> milestoneCredits = new ConcurrentLinkedQueue<>();
+    private final AtomicLong milestonesAwarded = new AtomicLong();
+
+    // ledger and sink may be null
+    EngagementCounters(RewardLedger ledger, Consumer<List<Delta>> sink) {
+        this(RewardsEngine.RewardConfig.DEFAULT, ledger, sink);
+    }
+
+    EngagementCounters(RewardsEngine.RewardConfig config, RewardLedger ledger, Consumer<List<Delta>> sink) {
+        this.config = config;
+        this.ledger = ledger;
+        this.sink = sink;
+        for (int i = 0; i < ENGAGEMENT_TYPES.length; i++) {
+            engagementRewards[i] = config.engagement().getOrDefault(ENGAGEMENT_TYPES[i], 0);
+        }
+    }
+
+    void view(String postId, String authorId) {
+        Post post = post(postId, authorId);
+        if (post.views.get() >= post.exactFrom) {
+            long before = post.views.getAndIncrement();
+            award(post, before, before + 1);
+        } else {
+            post.increment(VIEW);
+        }
+        markDirty(post);
+    }
+
+    // type is "like", "comment" or "share"; self-engagement earns nothing and is not counted
+    void engage(String postId, String authorId, String engagerId, String type) {
+        int kind = kind(type);
+        if (authorId.equals(engagerId)) return;
+        Post post = post(postId, authorId);
+        post.increment(kind);
+        markDirty(post);
+    }
+
+    // Folded and exactly counted views plus whatever is still pending
+    long views(String postId) {
+        Post post = posts.get(postId);
+        if (post == null) return 0;
+        return post.views.get() + post.pending(VIEW);
+    }
+
+    long milestonesAwarded() {
+        return milestonesAwarded.get();
+    }
+
+    // Drains every post touched since the last flush: folds pending views into the totals (which
+    // may cross milestones), passes the deltas to the sink and credits the ledger in aggregate
+    synchronized FlushStats flush() {
+        List<Delta> deltas = new ArrayList<>(dirty.size());
+        List<RewardLedger.Credit> credits = new ArrayList<>();
+        long events = 0;
+        for (Post post : dirty) {
+            dirty.remove(post);
+            // Cleared before draining: an event racing with the drain marks the post again and at
+            // worst shows up as an empty delta next time
+            post.dirty = false;
+            long[] counts = new long[VIEW + 1];
+            for (int kind = 0; kind <= VIEW; kind++) counts[kind] = post.drain(kind);
+            if (counts[VIEW] > 0) {
+                long before = post.views.getAndAdd(counts[VIEW]);
+                award(post, before, before + counts[VIEW]);
+            }
+            long views = post.views.get();
+            long newViews = views - post.flushedViews;
+            post.flushedViews = views;
+            if (newViews == 0 && counts[0] == 0 && counts[1] == 0 && counts[2] == 0) continue;
+            deltas.add(new Delta(post.postId, post.authorId, newViews, counts[0], counts[1], counts[2]));
+            events += newViews + counts[0] + counts[1] + counts[2];
+            for (int kind = 0; kind < ENGAGEMENT_TYPES.length; kind++) {
+                if (counts[kind] > 0 && engagementRewards[kind] != 0) {
+                    credits.add(new RewardLedger.Credit(post.authorId, post.postId, "engagement", ENGAGEMENT_TYPES[kind],
+                        counts[kind] * engagementRewards[kind], 0));
+                }
+            }
+        }
+        for (RewardLedger.Credit credit; (credit = milestoneCredits.poll()) != null; ) credits.add(credit);
+        if (sink != null && !deltas.isEmpty()) sink.accept(deltas);
+        if (ledger != null) {
+            for (RewardLedger.Credit credit : credits) ledger.credit(credit);
+        }
+        return new FlushStats(deltas.size(), events, credits.size());
+    }
+
+    ScheduledFuture<?> start(ScheduledExecutorService executor, Duration interval) {
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.err.println("Engagement counter flush failed: " + e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Post post(String postId, String authorId) {
+        Post post = posts.get(postId);
+        return post != null ? post : posts.computeIfAbsent(postId, id -> new Post(id, authorId, exactFrom(0)));
+    }
+
+    private void markDirty(Post post) {
+        if (!post.dirty) {
+            post.dirty = true;
+            dirty.add(post);
+        }
+    }
+
+    // The caller owns counts (before, after]: every threshold in there is its to award
+    private void award(Post post, long before, long after) {
+        Map<Long, Integer> crossed = config.milestones().subMap(before, false, after, true);
+        if (crossed.isEmpty()) return;
+        for (Map.Entry<Long, Integer> m : crossed.entrySet()) {
+            milestoneCredits.add(new RewardLedger.Credit(post.authorId, post.postId, "milestone", m.getKey() + "_views", m.getValue(), 0));
+            milestonesAwarded.incrementAndGet();
+        }
+        // Racing updates can leave a stale value; that only changes which path later views take
+        post.exactFrom = exactFrom(after);
+    }
+
+    private long exactFrom(long views) {
+        Long next = config.milestones().higherKey(views);
+        return next == null ? Long.MAX_VALUE : Math.max(0, next - EXACT_WINDOW);
+    }
+
+    private static int kind(String type) {
+        for (int i = 0; i < ENGAGEMENT_TYPES.length; i++) {
+            if (ENGAGEMENT_TYPES[i].equals(type)) return i;
+        }
+        throw new IllegalArgumentException("Invalid engagement type: " + type);
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 58 & (STRIPES - 1)) * STRIDE;
+    }
+}
@@ -0,0 +1,625 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Follow graph over UserIds ids in compressed sparse row form: offsets[u]..offsets[u + 1] index the
+// sorted ids u follows in one targets array. Live follows and unfollows go to a per-user overlay of
+// added and removed edges that is merged into new CSR arrays once it reaches 1/8 of the base (at least
+// MIN_COMPACT edits). Dare partners (pairs with completed dares, from PairStatsAggregator) are a second,
+// undirected CSR weighted by the number of dares shared.
+//
+// Suggestions are two-hop walks: friends of friends are the users followed by the ones a user
+// follows, scored by the number of such paths; dare-partner suggestions are the partners of a user's
+// partners, scored by the dares along the weaker edge. Users already followed (or partnered) are
+// left out. Walks with more than PARALLEL_WORK edges are split by edge count across the pool.
+//
+// Binary file (big-endian), read through a MappedByteBuffer:
+//   header   magic "FGRF", u16 version, u16 reserved, i32 userCount, i64 edgeCount, then one i64
+//            offset per section in the order below
+//   users    string table (file ids to user ids)
+//   offsets  i32[userCount + 1]
+//   targets  i32[edgeCount], sorted per row
+// Files are limited to 2 GB (one mapping).
+class FollowGraph {
+    static final int MAGIC = 0x46475246; // "FGRF"
+    static final short VERSION = 1;
+    static final int MIN_COMPACT = 1 << 16;
+    static final int PARALLEL_WORK = 1 << 14;
+
+    private static final int SECTIONS = 3;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 8 + SECTIONS * 8;
+    private static final int USERS = 0, OFFSETS = 1, TARGETS = 2;
+    private static final int[] NONE = new int[0];
+
+    record Suggestion(String userId, int score) {}
+
+    private final UserIds users;
+    private final ForkJoinPool pool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Rows past offsets.length - 1 are empty
+    private int[] offsets = {0};
+    private int[] targets = NONE;
+    private int[][] added = new int[0][];
+    private int[] addedCounts = NONE;
+    private int[][] removed = new int[0][];
+    private int[] removedCounts = NONE;
+    private int overlayEdits;
+    private long edgeCount;
+
+    private int[] partnerOffsets = {0};
+    private int[] partners = NONE;
+    private int[] partnerDares = NONE;
+    private long partnerVersion = -1;
+
+    FollowGraph(UserIds users) {
+        this(users, ForkJoinPool.commonPool());
+    }
+
+    FollowGraph(UserIds users, ForkJoinPool pool) {
+        this.users = users;
+        this.pool = pool;
+    }
+
+    // Bulk load of `count` edges followers[i] -> followed[i] (ids from `users`); duplicates and
+    // self-follows are dropped
+    static FollowGraph build(UserIds users, int[] followers, int[] followed, int count) {
+        FollowGraph graph = new FollowGraph(users);
+        int rows = 0;
+        for (int i = 0; i < count; i++) rows = Math.max(rows, Math.max(followers[i], followed[i]) + 1);
+        int[] offsets = new int[rows + 1];
+        for (int i = 0; i < count; i++) offsets[followers[i] + 1]++;
+        for (int u = 0; u < rows; u++) offsets[u + 1] += offsets[u];
+        int[] fill = Arrays.copyOf(offsets, rows);
+        int[] targets = new int[count];
+        for (int i = 0; i < count; i++) targets[fill[followers[i]]++] = followed[i];
+        graph.setFollows(sortRows(rows, offsets, targets));
+        return graph;
+    }
+
+    boolean follow(String followerId, String followedId) {
+        int follower = users.intern(followerId);
+        int followed = users.intern(followedId);
+        if (follower == followed) return false;
+        lock.writeLock().lock();
+        try {
+            ensureRows(Math.max(follower, followed) + 1);
+            if (inBase(follower, followed)) {
+                if (!remove(removed, removedCounts, follower, followed)) return false;
+            } else {
+                if (indexOf(added[follower], addedCounts[follower], followed) >= 0) return false;
+                add(added, addedCounts, follower, followed);
+            }
+            edgeCount++;
+            edited();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean unfollow(String followerId, String followedId) {
+        int follower = users.find(followerId);
+        int followed = users.find(followedId);
+        if (follower < 0 || followed < 0) return false;
+        lock.writeLock().lock();
+        try {
+            if (follower >= addedCounts.length) return false;
+            if (!remove(added, addedCounts, follower, followed)) {
+                if (!inBase(follower, followed) || indexOf(removed[follower], removedCounts[follower], followed) >= 0) return false;
+                add(removed, removedCounts, follower, followed);
+            }
+            edgeCount--;
+            edited();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean follows(String followerId, String followedId) {
+        int follower = users.find(followerId);
+        int followed = users.find(followedId);
+        if (follower < 0 || followed < 0) return false;
+        lock.readLock().lock();
+        try {
+            return Arrays.binarySearch(following(follower), followed) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<String> following(String userId) {
+        int user = users.find(userId);
+        if (user < 0) return List.of();
+        lock.readLock().lock();
+        try {
+            int[] ids = following(user);
+            List<String> result = new ArrayList<>(ids.length);
+            for (int id : ids) result.add(users.name(id));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long edgeCount() {
+        lock.readLock().lock();
+        try {
+            return edgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Suggestion> friendsOfFriends(String userId, int limit) {
+        int user = users.find(userId);
+        if (user < 0 || limit < 1) return List.of();
+        lock.readLock().lock();
+        try {
+            int[] mine = following(user);
+            return top(walk(user, mine, null, mine, null), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rebuilds the partner CSR when the aggregator has recorded dares since the last call
+    void loadDarePartners(PairStatsAggregator pairs) {
+        long version = pairs.version();
+        lock.writeLock().lock();
+        try {
+            if (version == partnerVersion) return;
+            int[][] edges = {new int[1024], new int[1024], new int[1024]};
+            int[] count = {0};
+            pairs.forEachPair((a, b, dares) -> {
+                if (count[0] + 2 > edges[0].length) {
+                    for (int k = 0; k < 3; k++) edges[k] = Arrays.copyOf(edges[k], edges[k].length * 2);
+                }
+                edges[0][count[0]] = a;
+                edges[1][count[0]] = b;
+                edges[2][count[0]++] = dares;
+                edges[0][count[0]] = b;
+                edges[1][count[0]] = a;
+                edges[2][count[0]++] = dares;
+            });
+            int n = count[0];
+            int rows = 0;
+            for (int i = 0; i < n; i++) rows = Math.max(rows, edges[0][i] + 1);
+            int[] offsets = new int[rows + 1];
+            for (int i = 0; i < n; i++) offsets[edges[0][i] + 1]++;
+            for (int u = 0; u < rows; u++) offsets[u + 1] += offsets[u];
+            int[] fill = Arrays.copyOf(offsets, rows);
+            // Packed as partner << 32 | dares, so sorting a row sorts by partner
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) packed[fill[edges[0][i]]++] = (long) edges[1][i] << 32 | edges[2][i];
+            partners = new int[n];
+            partnerDares = new int[n];
+            for (int u = 0; u < rows; u++) {
+                Arrays.sort(packed, offsets[u], offsets[u + 1]);
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    partners[i] = (int) (packed[i] >>> 32);
+                    partnerDares[i] = (int) packed[i];
+                }
+            }
+            partnerOffsets = offsets;
+            partnerVersion = version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Suggestion> darePartnerSuggestions(String userId, int limit) {
+        int user = users.find(userId);
+        if (user < 0 || limit < 1) return List.of();
+        lock.readLock().lock();
+        try {
+            if (user >= partnerOffsets.length - 1) return List.of();
+            int[] mine = Arrays.copyOfRange(partners, partnerOffsets[user], partnerOffsets[user + 1]);
+            int[] weights = Arrays.copyOfRange(partnerDares, partnerOffsets[user], partnerOffsets[user + 1]);
+            return top(walk(user, mine, weights, following(user), mine), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Merges the overlay into new CSR arrays
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            int rows = addedCounts.length;
+            int[] newOffsets = new int[rows + 1];
+            int[] newTargets = new int[Math.toIntExact(edgeCount)];
+            for (int u = 0; u < rows; u++) {
+                int[] row = following(u);
+                System.arraycopy(row, 0, newTargets, newOffsets[u], row.length);
+                newOffsets[u + 1] = newOffsets[u] + row.length;
+            }
+            offsets = newOffsets;
+            targets = newTargets;
+            Arrays.fill(added, null);
+            Arrays.fill(addedCounts, 0);
+            Arrays.fill(removed, null);
+            Arrays.fill(removedCounts, 0);
+            overlayEdits = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Writes the follows to `file` atomically (temp file + move)
+    void save(Path file) throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "follows", ".tmp");
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Row arrays grow ahead of the users; every user with an edge is interned
+            int rows = Math.min(addedCounts.length, users.size());
+            List<String> names = new ArrayList<>(rows);
+            for (int u = 0; u < rows; u++) names.add(users.name(u));
+            DareSnapshot.Output out = new DareSnapshot.Output(channel, HEADER_SIZE);
+            long[] sections = new long[SECTIONS];
+            sections[USERS] = out.stringTable(names);
+            sections[OFFSETS] = out.position();
+            long running = 0;
+            out.putInt(0);
+            for (int u = 0; u < rows; u++) {
+                running += rowSize(u);
+                out.putInt((int) running);
+            }
+            sections[TARGETS] = out.position();
+            for (int u = 0; u < rows; u++) {
+                for (int target : following(u)) out.putInt(target);
+            }
+            out.flush();
+
+            java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(rows).putLong(running);
+            for (long section : sections) header.putLong(section);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Interns the file's users; when they get the same ids as in the file (e.g. a fresh UserIds)
+    // the rows are bulk-copied, otherwise they are remapped and re-sorted
+    static FollowGraph load(Path file, UserIds users) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Follow graph larger than 2 GB: " + file);
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC) throw new IOException("Not a follow graph");
+        short version = buf.getShort(4);
+        if (version != VERSION) throw new IOException("Unsupported follow graph version " + version);
+        int rows = buf.getInt(8);
+        long edges = buf.getLong(12);
+        int[] sections = new int[SECTIONS];
+        for (int s = 0; s < SECTIONS; s++) {
+            long offset = buf.getLong(20 + s * 8);
+            if (offset < HEADER_SIZE || offset > buf.capacity()) throw new IOException("Corrupt follow graph section " + s);
+            sections[s] = (int) offset;
+        }
+        if (rows < 0 || edges < 0 || sections[TARGETS] + edges * 4 > buf.capacity()) throw new IOException("Corrupt follow graph");
+
+        int[] local = new int[rows];
+        boolean identity = true;
+        int names = sections[USERS];
+        int bytesStart = names + (rows + 1) * 4;
+        for (int u = 0; u < rows; u++) {
+            int start = buf.getInt(names + u * 4);
+            byte[] bytes = new byte[buf.getInt(names + (u + 1) * 4) - start];
+            buf.get(bytesStart + start, bytes);
+            local[u] = users.intern(new String(bytes, StandardCharsets.UTF_8));
+            identity &= local[u] == u;
+        }
+        int[] offsets = new int[rows + 1];
+        int[] targets = new int[(int) edges];
+        IntBuffer ints = buf.slice(sections[OFFSETS], (rows + 1) * 4).asIntBuffer();
+        ints.get(offsets);
+        buf.slice(sections[TARGETS], targets.length * 4).asIntBuffer().get(targets);
+        if (offsets[rows] != edges) throw new IOException("Corrupt follow graph offsets");
+
+        FollowGraph graph = new FollowGraph(users);
+        if (identity) {
+            graph.setFollows(new int[][] {offsets, targets});
+            return graph;
+        }
+        int localRows = 0;
+        for (int id : local) localRows = Math.max(localRows, id + 1);
+        int[] localOffsets = new int[localRows + 1];
+        for (int u = 0; u < rows; u++) localOffsets[local[u] + 1] = offsets[u + 1] - offsets[u];
+        for (int u = 0; u < localRows; u++) localOffsets[u + 1] += localOffsets[u];
+        int[] localTargets = new int[targets.length];
+        for (int u = 0; u < rows; u++) {
+            int at = localOffsets[local[u]];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) localTargets[at++] = local[targets[i]];
+            Arrays.sort(localTargets, localOffsets[local[u]], at);
+        }
+        graph.setFollows(new int[][] {localOffsets, localTargets});
+        return graph;
+    }
+
+    // ---- traversal ----
+
+    // Scores every user two hops from `user`: through first[i] (weighted firstWeights[i], or 1) to
+    // each of its follows, or its partners when firstWeights is set. Users in the sorted `skip` and
+    // `skipToo` arrays are left out.
+    private Counts walk(int user, int[] first, int[] firstWeights, int[] skip, int[] skipToo) {
+        boolean byPartner = firstWeights != null;
+        long[] work = new long[first.length + 1];
+        for (int i = 0; i < first.length; i++) work[i + 1] = work[i] + (byPartner ? partnerRowSize(first[i]) : rowSize(first[i]));
+
+        final class Walk extends RecursiveTask<Counts> {
+            private final int from, to;
+
+            Walk(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected Counts compute() {
+                if (to - from > 1 && work[to] - work[from] > PARALLEL_WORK) {
+                    // Split at half the edges, not half the neighbours: one celebrity can outweigh the rest
+                    long half = (work[from] + work[to]) >>> 1;
+                    int mid = Arrays.binarySearch(work, from, to, half);
+                    mid = Math.min(to - 1, Math.max(from + 1, mid < 0 ? -mid - 1 : mid));
+                    Walk right = new Walk(mid, to);
+                    right.fork();
+                    Counts counts = new Walk(from, mid).compute();
+                    counts.addAll(right.join());
+                    return counts;
+                }
+                Counts counts = new Counts((int) Math.min(1 << 20, work[to] - work[from]));
+                for (int i = from; i < to; i++) {
+                    int via = first[i];
+                    if (byPartner) {
+                        int w = firstWeights[i];
+                        for (int e = partnerOffsets[via]; e < partnerOffsets[via + 1]; e++) {
+                            int candidate = partners[e];
+                            if (candidate != user && Arrays.binarySearch(skip, candidate) < 0
+                                    && Arrays.binarySearch(skipToo, candidate) < 0) {
+                                counts.add(candidate, Math.min(w, partnerDares[e]));
+                            }
+                        }
+                    } else if (hasOverlay(via)) {
+                        for (int candidate : following(via)) {
+                            if (candidate != user && Arrays.binarySearch(skip, candidate) < 0) counts.add(candidate, 1);
+                        }
+                    } else if (via < offsets.length - 1) {
+                        for (int e = offsets[via]; e < offsets[via + 1]; e++) {
+                            int candidate = targets[e];
+                            if (candidate != user && Arrays.binarySearch(skip, candidate) < 0) counts.add(candidate, 1);
+                        }
+                    }
+                }
+                return counts;
+            }
+        }
+        Walk root = new Walk(0, first.length);
+        return work[first.length] > PARALLEL_WORK ? pool.invoke(root) : root.compute();
+    }
+
+    // Highest score first, ties by id
+    private List<Suggestion> top(Counts counts, int limit) {
+        // Min-heap of score << 32 | ~id, so the root is the weakest of the best `limit`
+        long[] heap = new long[Math.min(limit, counts.size)];
+        int size = 0;
+        for (int slot = 0; slot < counts.keys.length; slot++) {
+            if (counts.keys[slot] < 0) continue;
+            long entry = (long) counts.values[slot] << 32 | (~counts.keys[slot] & 0xFFFFFFFFL);
+            if (size < heap.length) {
+                heap[size] = entry;
+                siftUp(heap, size++);
+            } else if (entry > heap[0]) {
+                heap[0] = entry;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        List<Suggestion> result = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            result.add(new Suggestion(users.name(~(int) heap[i]), (int) (heap[i] >>> 32)));
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long t = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = t;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) return;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[i] <= heap[child]) return;
+            long t = heap[child];
+            heap[child] = heap[i];
+            heap[i] = t;
+            i = child;
+        }
+    }
+
+    // Open-addressing user id -> score, Fibonacci-hashed
+    private static final class Counts {
+        int[] keys;
+        int[] values;
+        int shift;
+        int size;
+
+        Counts(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            values = new int[capacity];
+            shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        }
+
+        void add(int key, int value) {
+            int mask = keys.length - 1;
+            int slot = (key * 0x9E3779B9) >>> shift;
+            while (keys[slot] >= 0) {
+                if (keys[slot] == key) {
+                    values[slot] += value;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) grow();
+        }
+
+        void addAll(Counts other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.keys[slot] >= 0) add(other.keys[slot], other.values[slot]);
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys, oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            values = new int[keys.length];
+            shift--;
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] >= 0) add(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    // ---- rows ----
+
+    // Current follows of a user, sorted: the base row without removed edges, plus added ones
+    private int[] following(int user) {
+        int start = user < offsets.length - 1 ? offsets[user] : 0;
+        int end = user < offsets.length - 1 ? offsets[user + 1] : 0;
+        int addedCount = user < addedCounts.length ? addedCounts[user] : 0;
+        int removedCount = user < removedCounts.length ? removedCounts[user] : 0;
+        if (addedCount == 0 && removedCount == 0) return Arrays.copyOfRange(targets, start, end);
+        int[] row = new int[end - start - removedCount + addedCount];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            if (removedCount == 0 || indexOf(removed[user], removedCount, targets[i]) < 0) row[n++] = targets[i];
+        }
+        System.arraycopy(added[user], 0, row, n, addedCount);
+        Arrays.sort(row);
+        return row;
+    }
+
+    private boolean hasOverlay(int user) {
+        return user < addedCounts.length && (addedCounts[user] | removedCounts[user]) != 0;
+    }
+
+    private int rowSize(int user) {
+        int base = user < offsets.length - 1 ? offsets[user + 1] - offsets[user] : 0;
+        return user < addedCounts.length ? base + addedCounts[user] - removedCounts[user] : base;
+    }
+
+    private int partnerRowSize(int user) {
+        return user < partnerOffsets.length - 1 ? partnerOffsets[user + 1] - partnerOffsets[user] : 0;
+    }
+
+    private boolean inBase(int follower, int followed) {
+        return follower < offsets.length - 1 && Arrays.binarySearch(targets, offsets[follower], offsets[follower + 1], followed) >= 0;
+    }
+
+    private void setFollows(int[][] csr) {
+        offsets = csr[0];
+        targets = csr[1];
+        edgeCount = targets.length;
+        ensureRows(offsets.length - 1);
+    }
+
+    private void edited() {
+        if (++overlayEdits >= Math.max(MIN_COMPACT, targets.length / 8)) compact();
+    }
+
+    private void ensureRows(int rows) {
+        if (rows <= addedCounts.length) return;
+        int size = Math.max(rows, addedCounts.length * 2);
+        added = Arrays.copyOf(added, size);
+        addedCounts = Arrays.copyOf(addedCounts, size);
+        removed = Arrays.copyOf(removed, size);
+        removedCounts = Arrays.copyOf(removedCounts, size);
+    }
+
+    // Sorts each row and drops duplicates and self-edges, compacting in place
+    private static int[][] sortRows(int rows, int[] offsets, int[] targets) {
+        int write = 0;
+        int start = 0;
+        for (int u = 0; u < rows; u++) {
+            int end = offsets[u + 1];
+            Arrays.sort(targets, start, end);
+            offsets[u] = write;
+            int previous = -1;
+            for (int i = start; i < end; i++) {
+                if (targets[i] != previous && targets[i] != u) targets[write++] = targets[i];
+                previous = targets[i];
+            }
+            start = end;
+        }
+        offsets[rows] = write;
+        return new int[][] {offsets, write == targets.length ? targets : Arrays.copyOf(targets, write)};
+    }
+
+    private static void add(int[][] lists, int[] counts, int owner, int value) {
+        int[] list = lists[owner];
+        int count = counts[owner];
+        if (list == null || count == list.length) {
+            lists[owner] = list = Arrays.copyOf(list == null ? NONE : list, Math.max(4, count * 2));
+        }
+        list[count] = value;
+        counts[owner] = count + 1;
+    }
+
+    // Order is not kept: the last entry moves into the gap
+    private static boolean remove(int[][] lists, int[] counts, int owner, int value) {
+        int[] list = lists[owner];
+        int count = counts[owner];
+        int i = indexOf(list, count, value);
+        if (i < 0) return false;
+        list[i] = list[count - 1];
+        counts[owner] = count - 1;
+        return true;
+    }
+
+    private static int indexOf(int[] list, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Append-only log of newline-terminated records with a single group-committing writer: append() hands
+// out a sequence number and queues the record; the writer drains everything queued, writes it in one go
+// and forces the file once per batch. awaitDurable(seq) blocks until the record is on disk.
+// Opening replays every complete line and cuts off a torn final one: it was never forced, so never
+// acknowledged, and new records must not be appended to it.
+class GroupCommitLog implements AutoCloseable {
+    private static final int MAX_BATCH = 4096;
+    // nextSeq is swapped to this on close, so later appends get a negative number and are refused
+    private static final long CLOSED = Long.MIN_VALUE / 2;
+
+    private record Queued(long seq, byte[] line) {}
+
+    private final String name;
+    private final LinkedTransferQueue<Queued> queue = new LinkedTransferQueue<>();
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object durableMonitor = new Object();
+    private volatile long durableSeq = -1;
+    // Every sequence number below this has been handed out; set once by close()
+    private volatile long end = Long.MAX_VALUE;
+    private volatile IOException failure;
+
+    // Sequences written past a gap, as a min-heap; only the writer touches it
+    private long[] ahead = new long[64];
+    private int aheadSize;
+
+    // replay sees each complete line of an existing file, without its '\n'
+    GroupCommitLog(Path file, String name, Consumer<String> replay) throws IOException {
+        this.name = name;
+        long validEnd = Files.exists(file) ? replay(file, replay) : 0;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > validEnd) channel.truncate(validEnd);
+            channel.position(validEnd);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        writer = new Thread(this::writeLoop, name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // line must end with '\n'. Throws IllegalStateException once close() has started; a record that got
+    // a sequence number before that is always written.
+    long append(byte[] line) {
+        long seq = nextSeq.getAndIncrement();
+        if (seq < 0) throw new IllegalStateException(name + " is closed");
+        queue.put(new Queued(seq, line));
+        return seq;
+    }
+
+    void awaitDurable(long seq) throws IOException, InterruptedException {
+        synchronized (durableMonitor) {
+            while (durableSeq < seq) {
+                if (failure != null) throw failure;
+                if (!writer.isAlive()) throw new IOException(name + " writer stopped");
+                durableMonitor.wait(100);
+            }
+        }
+    }
+
+    // Waits until everything appended so far is on disk
+    void flush() throws IOException, InterruptedException {
+        long next = nextSeq.get();
+        if (next < 0) {
+            // Closing: end is set under the lock, right after the swap
+            synchronized (this) {
+                next = end;
+            }
+        }
+        awaitDurable(next - 1);
+    }
+
+    // Writes out everything appended before it, then closes the file. The writer is not interrupted:
+    // that would close the channel under a write. It sees end and stops within one poll.
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (end == Long.MAX_VALUE) end = nextSeq.getAndSet(CLOSED);
+        }
+        try {
+            flush();
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<Queued> batch = new ArrayList<>(MAX_BATCH);
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+        long contiguous = -1;
+        while (durableSeq < end - 1) {
+            try {
+                Queued first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                buf.clear();
+                for (Queued q : batch) {
+                    if (buf.remaining() < q.line.length) {
+                        buf.flip();
+                        while (buf.hasRemaining()) channel.write(buf);
+                        buf.clear();
+                    }
+                    if (q.line.length > buf.capacity()) {
+                        channel.write(ByteBuffer.wrap(q.line));
+                    } else {
+                        buf.put(q.line);
+                    }
+                }
+                buf.flip();
+                while (buf.hasRemaining()) channel.write(buf);
+                channel.force(false);
+
+                // Sequence numbers are handed out before enqueueing, so batches can arrive slightly out
+                // of order; only a contiguous prefix is reported durable.
+                for (Queued q : batch) push(q.seq);
+                while (aheadSize > 0 && ahead[0] == contiguous + 1) contiguous = pop();
+                batch.clear();
+                synchronized (durableMonitor) {
+                    durableSeq = contiguous;
+                    durableMonitor.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                // Only close() ends the loop
+            } catch (IOException e) {
+                failure = e;
+                synchronized (durableMonitor) {
+                    durableMonitor.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private void push(long seq) {
+        if (aheadSize == ahead.length) ahead = java.util.Arrays.copyOf(ahead, aheadSize * 2);
+        int i = aheadSize++;
+        while (i > 0 && ahead[(i - 1) >>> 1] > seq) {
+            ahead[i] = ahead[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        ahead[i] = seq;
+    }
+
+    private long pop() {
+        long min = ahead[0];
+        long last = ahead[--aheadSize];
+        int i = 0;
+        for (int child; (child = 2 * i + 1) < aheadSize; i = child) {
+            if (child + 1 < aheadSize && ahead[child + 1] < ahead[child]) child++;
+            if (ahead[child] >= last) break;
+            ahead[i] = ahead[child];
+        }
+        ahead[i] = last;
+        return min;
+    }
+
+    // Returns the offset just past the last complete line. An unterminated last line is not replayed even
+    // if it parses, since a torn "10" reads as "1".
+    private static long replay(Path file, Consumer<String> replay) throws IOException {
+        long validEnd = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            long offset = 0;
+            for (int b; (b = in.read()) != -1; ) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                replay.accept(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                validEnd = offset;
+            }
+        }
+        return validEnd;
+    }
+
+    // Tabs and newlines would split a record
+    static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
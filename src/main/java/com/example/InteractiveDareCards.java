@@ -1,20 +1,11 @@
 package com.example;
 
-import javafx.animation.*;
 import javafx.application.Application;
+import javafx.collections.FXCollections;
 import javafx.scene.Scene;
-import javafx.scene.control.*;
-import javafx.scene.layout.*;
+import javafx.scene.control.ListView;
 import javafx.stage.Stage;
-import javafx.stage.FileChooser;
 import javafx.geometry.Insets;
-import javafx.geometry.Pos;
-import javafx.scene.text.Font;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.effect.DropShadow;
-import javafx.scene.effect.InnerShadow;
-import javafx.util.Duration;
 
 // Data models matching frontend/backend structure
 class Dare {
@@ -51,257 +42,224 @@ class Dare {
 }
 
 class DareService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+
     private static java.util.List<Dare> mockDares = java.util.Arrays.asList(
         new Dare("dare-1", "The Kings will be better than the Bulls this season", "user1", "completed", new String[]{"user1", "user2"}, null, 20, "user1"),
         new Dare("dare-2", "Bitcoin will not reach $110,000", "user2", "completed", new String[]{"user2", "user3"}, null, 5, "user3"),
         new Dare("dare-3", "Bitcoin will not reach $110,000", "user2", "completed", new String[]{"user4", "user5"}, null, 15, null)
     );
 
+    private static final DareStore store = new DareStore();
+    private static final DareTitleIndex titleIndex = DareTitleIndex.attach(store);
+    private static final Leaderboard leaderboard = Leaderboard.attach(store);
+    private static final UserIds userIds = new UserIds();
+    private static final PairStatsAggregator pairStats = PairStatsAggregator.attach(store, userIds);
+    private static final TimelineService timelines = TimelineService.attach(store, userIds);
+    private static final FollowGraph followGraph = new FollowGraph(userIds);
+    private static final ProofUploader proofUploader = new ProofUploader(new DirectoryChunkStore(java.nio.file.Path.of(
+        System.getProperty("darecards.proofStore", System.getProperty("user.home") + "/.darecards/proofs"))));
+    // Writes the status directly: the mock and synthetic dares here are not created through a
+    // DareLifecycle, so there is no log to send an Expire command to yet
+    private static final DareExpiryScheduler expiryScheduler = new DareExpiryScheduler(
+        java.time.Clock.systemDefaultZone(), java.time.Duration.ofSeconds(1),
+        dare -> store.updateStatus(dare.id, "expired"));
+    private static java.util.concurrent.ScheduledExecutorService expiryExecutor;
+
+    static {
+        store.putAll(mockDares);
+        for (Dare dare : mockDares) {
+            expiryScheduler.schedule(dare);
+        }
+    }
+
+    static void addDare(Dare dare) {
+        store.put(dare);
+        expiryScheduler.schedule(dare);
+    }
+
+    // Synthetic completed dares between a dozen users, for measurements
+    static void addMockDares(int count) {
+        for (int i = 0; i < count; i++) {
+            Dare dare = new Dare("mock-" + i, "Mock dare #" + i, "user" + (i % 7), "completed",
+                new String[]{"user" + (i % 7), "user" + (i % 5 + 7)}, null, 5 + i % 20, i % 2 == 0 ? "user" + (i % 7) : null);
+            addDare(dare);
+        }
+    }
+
+    static void saveSnapshot(java.nio.file.Path file) throws java.io.IOException {
+        DareSnapshot.write(file, store.all());
+    }
+
+    // Materializes every dare of a snapshot into the store; read-only callers can use DareSnapshot.open directly
+    static int loadSnapshot(java.nio.file.Path file) throws java.io.IOException {
+        DareSnapshot snapshot = DareSnapshot.open(file);
+        for (int i = 0; i < snapshot.size(); i++) {
+            addDare(snapshot.toDare(i));
+        }
+        return snapshot.size();
+    }
+
+    // Starts the once-per-second expiry sweep; calling it again is a no-op
+    static synchronized void startExpirySweeps() {
+        if (expiryExecutor != null) return;
+        expiryExecutor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dare-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        expiryScheduler.start(expiryExecutor);
+    }
+
+    static DareExpiryScheduler getExpiryScheduler() {
+        return expiryScheduler;
+    }
+
+    static DareStore getStore() {
+        return store;
+    }
+
+    static DareTitleIndex getTitleIndex() {
+        return titleIndex;
+    }
+
+    static Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    static UserIds getUserIds() {
+        return userIds;
+    }
+
+    static PairStatsAggregator getPairStats() {
+        return pairStats;
+    }
+
+    static TimelineService getTimelines() {
+        return timelines;
+    }
+
+    static ProofUploader getProofUploader() {
+        return proofUploader;
+    }
+
+    static FollowGraph getFollowGraph() {
+        return followGraph;
+    }
+
+    // The backend's onFollow: feeds the timelines and the suggestion graph
+    static void follow(String followerId, String followedId) {
+        if (followGraph.follow(followerId, followedId)) timelines.follow(followerId, followedId);
+    }
+
+    static void unfollow(String followerId, String followedId) {
+        if (followGraph.unfollow(followerId, followedId)) timelines.unfollow(followerId, followedId);
+    }
+
+    static java.util.List<FollowGraph.Suggestion> getFriendSuggestions(String userId, int limit) {
+        return followGraph.friendsOfFriends(userId, limit);
+    }
+
+    // Picks up dares completed since the last call first
+    static java.util.List<FollowGraph.Suggestion> getDarePartnerSuggestions(String userId, int limit) {
+        followGraph.loadDarePartners(pairStats);
+        return followGraph.darePartnerSuggestions(userId, limit);
+    }
+
+    // Served from the status index, newest first
     static java.util.List<Dare> getCompletedDares() {
-        return mockDares.stream()
-            .filter(dare -> "completed".equals(dare.status))
-            .collect(java.util.stream.Collectors.toList());
+        java.util.List<Dare> completed = new java.util.ArrayList<>();
+        String cursor = null;
+        do {
+            DareStore.Page<Dare> page = store.byStatus("completed", cursor, DEFAULT_PAGE_SIZE);
+            completed.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return completed;
+    }
+
+    static DareStore.Page<Dare> getCompletedDares(String userId, String cursor, int limit) {
+        return store.byStatusAndParticipant("completed", userId, cursor, limit);
     }
 
     static String[] getParticipantsForDare(Dare dare) {
         return dare.participants;
     }
+
+    static boolean isParticipant(Dare dare, String userId) {
+        return store.isParticipant(dare, userId);
+    }
 }
 
 public class InteractiveDareCards extends Application {
 
-    private double startX, dragDeltaX, startRotate, startScale;
-
     @Override
     public void start(Stage primaryStage) {
-        // Root layout with scroll
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background: #000000; -fx-border-color: transparent;");
+        // -Ddarecards.jfr=cards.jfr records the session (see DareEvents)
+        DareEvents.startRecordingIfEnabled();
+
+        // -Ddarecards.mockCount=N pads the feed with synthetic dares for rendering measurements
+        DareService.addMockDares(Integer.getInteger("darecards.mockCount", 0));
 
-        VBox root = new VBox(10);
-        root.setPadding(new Insets(10));
-        root.setStyle("-fx-background-color: #000000;");
-        scrollPane.setContent(root);
+        // Subscribe before the snapshot so nothing written in between is missed; a change the snapshot
+        // already has just patches the card in place
+        javafx.collections.ObservableList<Dare> feedItems = FXCollections.observableArrayList();
+        new DareChangeFeed(DareService.getStore(), changes -> applyChanges(feedItems, changes));
 
         // Get completed dares from service (matching frontend backend patterns)
         java.util.List<Dare> completedDares = DareService.getCompletedDares();
-
-        // Add dare cards dynamically from data (matching frontend React patterns)
-        for (Dare dare : completedDares) {
-            addDareCard(root, dare);
+        DareService.startExpirySweeps();
+
+        // -Ddarecards.apiPort=8080 also serves the same data over HTTP (see DareApiServer)
+        Integer apiPort = Integer.getInteger("darecards.apiPort");
+        if (apiPort != null) {
+            try {
+                DareApiServer.startForDareService(apiPort);
+            } catch (java.io.IOException e) {
+                System.err.println("Could not start the dare API on port " + apiPort + ": " + e.getMessage());
+            }
         }
 
+        // Virtualized feed: only the visible cards are in the scene graph and cells are recycled while scrolling
+        feedItems.setAll(completedDares);
+        ListView<Dare> feed = new ListView<>(feedItems);
+        feed.setCellFactory(list -> new DareCardCell());
+        feed.setPadding(new Insets(10));
+        feed.getStyleClass().add("dare-feed");
+
         // Scene and Stage
-        Scene scene = new Scene(scrollPane, 390, 844);
+        Scene scene = new Scene(feed, 390, 844);
+        scene.getStylesheets().add(DareCardCell.STYLESHEET);
+        DareEvents.installPulseEvents(scene, "Dare Cards");
         primaryStage.setTitle("Dare Cards");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
-    private void addDareCard(VBox parent, Dare dare) {
-        VBox card = new VBox(5);
-        card.setPrefSize(350, 150);
-        card.setStyle("-fx-background-color: #222222; -fx-border-color: #333333; -fx-border-width: 1; -fx-border-radius: 10; -fx-padding: 10;");
-
-        // Title
-        Label cardTitle = new Label(dare.title);
-        cardTitle.setFont(Font.font("Montserrat", 16));
-        cardTitle.setTextFill(Color.WHITE);
-
-        // Participants (dynamic based on dare data)
-        HBox userRow = new HBox(10);
-        userRow.setAlignment(Pos.CENTER);
-        String[] participants = DareService.getParticipantsForDare(dare);
-        for (int i = 0; i < Math.min(participants.length, 3); i++) {
-            Circle avatar = new Circle(15, Color.web("#333333"));
-            avatar.setStroke(Color.web(dare.getStatusColor()));
-            avatar.setStrokeWidth(2);
-            Label usernameLabel = new Label("@" + participants[i]);
-            usernameLabel.setTextFill(Color.LIGHTGRAY);
-            userRow.getChildren().addAll(usernameLabel, avatar);
-        }
-
-        // Status indicator using dare status
-        Label statusLabel = new Label(dare.status.toUpperCase());
-        statusLabel.setTextFill(Color.web(dare.getStatusColor()));
-        statusLabel.setFont(Font.font("Montserrat", 12));
-
-        // Icons Row
-        HBox iconsRow = new HBox(20);
-        iconsRow.setAlignment(Pos.CENTER);
-        Label[] iconLabels = {
-            new Label("▶"), new Label("•••"), new Label("✖"), new Label("▶")
-        };
-        for (Label iconLabel : iconLabels) {
-            iconLabel.setFont(Font.font(18));
-            iconLabel.setTextFill(Color.WHITE);
-        }
-        iconsRow.getChildren().addAll(iconLabels);
-
-        // Result based on winner (matching frontend logic)
-        boolean isWinner = dare.winnerId != null &&
-                          dare.participants != null &&
-                          java.util.Arrays.asList(dare.participants).contains(dare.winnerId);
-
-        String resultText = isWinner ? "You Won" : "You Lost";
-        Color resultColor = isWinner ? Color.web("#00D4AA") : Color.web("#FF6666");
-
-        Label resultLabel = new Label(resultText);
-        resultLabel.setFont(Font.font("Montserrat", 14));
-        resultLabel.setTextFill(resultColor);
-
-        // Action Button (dynamic based on result)
-        String actionText = isWinner ? "Post" : "Add Proof";
-        Button actionButton = new Button(actionText);
-        actionButton.setStyle("-fx-background-color: " + toRgbString(resultColor) + "; -fx-text-fill: #000000; -fx-font-size: 14px; -fx-padding: 5 20; -fx-border-radius: 10;");
-
-        // Hover Animation (Scale Up)
-        ScaleTransition hoverTransition = new ScaleTransition(Duration.millis(200), actionButton);
-        hoverTransition.setToX(1.1);
-        hoverTransition.setToY(1.1);
-        actionButton.setOnMouseEntered(e -> hoverTransition.play());
-        actionButton.setOnMouseExited(e -> {
-            hoverTransition.setToX(1.0);
-            hoverTransition.setToY(1.0);
-            hoverTransition.play();
-        });
-
-        // Click Animation (Pulse)
-        Timeline pulseTimeline = new Timeline(
-            new KeyFrame(Duration.ZERO, new KeyValue(actionButton.styleProperty(), "-fx-background-color: " + toRgbString(resultColor))),
-            new KeyFrame(Duration.millis(150), new KeyValue(actionButton.styleProperty(), "-fx-background-color: " + toRgbString(Color.web("#FFFFFF")))),
-            new KeyFrame(Duration.millis(300), new KeyValue(actionButton.styleProperty(), "-fx-background-color: " + toRgbString(resultColor)))
-        );
-        pulseTimeline.setCycleCount(2);
-        actionButton.setOnMousePressed(e -> pulseTimeline.play());
-        actionButton.setOnMouseReleased(e -> actionButton.setStyle("-fx-background-color: " + toRgbString(resultColor) + "; -fx-text-fill: #000000; -fx-font-size: 14px; -fx-padding: 5 20; -fx-border-radius: 10;"));
-
-        // Interactive Actions
-        actionButton.setOnAction(event -> {
-            if (actionText.equals("Post")) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Post Action");
-                alert.setContentText("Posting your win!");
-                alert.showAndWait();
-            } else if (actionText.equals("Add Proof")) {
-                FileChooser fileChooser = new FileChooser();
-                fileChooser.setTitle("Add Proof");
-                fileChooser.showOpenDialog(actionButton.getScene().getWindow());
-            }
-        });
-
-        // Add card content
-        card.getChildren().addAll(cardTitle, userRow, iconsRow, resultLabel, actionButton);
-
-        // Initial effects: shadow and glow
-        DropShadow shadow = new DropShadow(5, Color.web("#00D4AA"));
-        InnerShadow glow = new InnerShadow(5, Color.web("#00D4AA"));
-        card.setEffect(new javafx.scene.effect.Effect[] {shadow, glow}[0]); // Start with shadow only
-
-        // Swipe, Rotation, Scale, Opacity, Shadow, and Glow Animation
-        card.setOnMousePressed(e -> {
-            startX = e.getSceneX();
-            dragDeltaX = card.getTranslateX();
-            startRotate = card.getRotate();
-            startScale = card.getScaleX();
-            card.setOpacity(1.0); // Reset opacity on press
-            shadow.setRadius(5); // Reset shadow radius
-            shadow.setOffsetX(0);
-            shadow.setOffsetY(0);
-            glow.setRadius(5); // Reset glow radius
-        });
-
-        card.setOnMouseDragged(e -> {
-            double deltaX = e.getSceneX() - startX;
-            card.setTranslateX(dragDeltaX + deltaX);
-            // Optimized rotation sensitivity with quadratic scaling
-            double rotateAngle = (deltaX * deltaX) / 5000;
-            if (deltaX < 0) rotateAngle = -rotateAngle;
-            if (rotateAngle > 15) rotateAngle = 15;
-            if (rotateAngle < -15) rotateAngle = -15;
-            card.setRotate(startRotate + rotateAngle);
-            // Scale animation based on swipe distance
-            double scaleFactor = 1.0 + Math.abs(deltaX) / 700;
-            if (scaleFactor > 1.2) scaleFactor = 1.2;
-            card.setScaleX(startScale * scaleFactor);
-            card.setScaleY(startScale * scaleFactor);
-            // Opacity fade based on swipe distance
-            double opacity = 1.0 - Math.abs(deltaX) / 400;
-            if (opacity < 0.3) opacity = 0.3;
-            card.setOpacity(opacity);
-            // Shadow effect based on swipe distance
-            double shadowRadius = 5 + Math.abs(deltaX) / 50; // Max radius 10 at 250px
-            if (shadowRadius > 15) shadowRadius = 15;
-            shadow.setRadius(shadowRadius);
-            shadow.setOffsetX(deltaX / 20); // Slight offset in swipe direction
-            shadow.setOffsetY(5);
-            // Glow effect based on swipe distance
-            double glowRadius = 5 + Math.abs(deltaX) / 30; // Max radius 15 at 300px
-            if (glowRadius > 15) glowRadius = 15;
-            glow.setRadius(glowRadius);
-            card.setEffect(new javafx.scene.effect.Effect[] {shadow, glow}[1]); // Switch to glow during drag
-        });
-
-        card.setOnMouseReleased(e -> {
-            double translateX = card.getTranslateX();
-            TranslateTransition translateTransition = new TranslateTransition(Duration.millis(300), card);
-            RotateTransition rotateTransition = new RotateTransition(Duration.millis(300), card);
-            ScaleTransition scaleTransition = new ScaleTransition(Duration.millis(300), card);
-            FadeTransition fadeTransition = new FadeTransition(Duration.millis(300), card);
-            translateTransition.setInterpolator(Interpolator.EASE_OUT);
-            rotateTransition.setInterpolator(Interpolator.EASE_OUT);
-            scaleTransition.setInterpolator(Interpolator.EASE_OUT);
-            fadeTransition.setInterpolator(Interpolator.EASE_OUT);
-
-            if (translateX > 100) {
-                // Swipe Right (e.g., Approve)
-                translateTransition.setToX(400);
-                rotateTransition.setToAngle(15);
-                scaleTransition.setToX(1.0);
-                scaleTransition.setToY(1.0);
-                fadeTransition.setToValue(0.0); // Full fade-out
-                translateTransition.setOnFinished(event -> parent.getChildren().remove(card));
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Action");
-                alert.setContentText("Dare Approved!");
-                alert.showAndWait();
-            } else if (translateX < -100) {
-                // Swipe Left (e.g., Decline)
-                translateTransition.setToX(-400);
-                rotateTransition.setToAngle(-15);
-                scaleTransition.setToX(1.0);
-                scaleTransition.setToY(1.0);
-                fadeTransition.setToValue(0.0); // Full fade-out
-                translateTransition.setOnFinished(event -> parent.getChildren().remove(card));
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Action");
-                alert.setContentText("Dare Declined!");
-                alert.showAndWait();
+    // Patches the completed-dares feed with one batch of coalesced changes: a single pass over the
+    // feed for the cards it already shows, then newly completed dares on top
+    static void applyChanges(java.util.List<Dare> items, java.util.List<DareStore.Change> changes) {
+        java.util.Map<String, DareStore.Change> byId = new java.util.HashMap<>();
+        for (DareStore.Change change : changes) byId.put(change.dare().id, change);
+        for (int i = items.size() - 1; i >= 0 && !byId.isEmpty(); i--) {
+            DareStore.Change change = byId.remove(items.get(i).id);
+            if (change == null) continue;
+            if (change.kind() == DareStore.ChangeKind.REMOVE || !"completed".equals(change.status())) {
+                items.remove(i);
             } else {
-                // Reset to original position, rotation, scale, opacity, shadow, and glow
-                translateTransition.setToX(0);
-                rotateTransition.setToAngle(0);
-                scaleTransition.setToX(1.0);
-                scaleTransition.setToY(1.0);
-                fadeTransition.setToValue(1.0);
-                shadow.setRadius(5);
-                shadow.setOffsetX(0);
-                shadow.setOffsetY(0);
-                glow.setRadius(5);
-                card.setEffect(shadow); // Revert to shadow only
+                items.set(i, change.dare());
             }
-            translateTransition.play();
-            rotateTransition.play();
-            scaleTransition.play();
-            fadeTransition.play();
-        });
-
-        parent.getChildren().add(card);
-    }
-
-    private String toRgbString(Color color) {
-        return String.format("rgb(%.0f, %.0f, %.0f)", color.getRed() * 255, color.getGreen() * 255, color.getBlue() * 255);
+        }
+        java.util.List<Dare> added = new java.util.ArrayList<>();
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            DareStore.Change change = changes.get(i);
+            if (!byId.containsKey(change.dare().id) || change.kind() == DareStore.ChangeKind.REMOVE
+                || !"completed".equals(change.status())) continue;
+            // An update to a dare that was already completed but is not shown was swiped away; keep it gone
+            if (change.kind() == DareStore.ChangeKind.UPDATE && "completed".equals(change.previousStatus())) continue;
+            added.add(change.dare());
+        }
+        if (!added.isEmpty()) items.addAll(0, added);
     }
 
     public static void main(String[] args) {
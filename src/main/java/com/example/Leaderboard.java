@@ -0,0 +1,286 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Incremental leaderboard fed by dare-completion events, mirroring the backend's
+// updateLeaderboard/updatePlayerStats triggers (wins, losses, stones earned).
+// Players live in an indexed skip list (each forward link stores how many nodes it
+// skips), so an update, "rank of user" and "select by rank" are all O(log n).
+class Leaderboard {
+    private static final int MAX_LEVEL = 32;
+
+    record Standing(int rank, String userId, int wins, int losses, long stonesEarned) {}
+
+    private static final class Player {
+        final String userId;
+        int wins, losses;
+        long stonesEarned;
+        Node node;
+
+        Player(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Node {
+        final Player player;
+        final Node[] next;
+        final int[] span;
+        Node backward;
+
+        Node(Player player, int level) {
+            this.player = player;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    // Most stones first, then most wins, fewest losses, and user id so the order is total
+    private static int compare(Player a, Player b) {
+        if (a.stonesEarned != b.stonesEarned) return a.stonesEarned > b.stonesEarned ? -1 : 1;
+        if (a.wins != b.wins) return a.wins > b.wins ? -1 : 1;
+        if (a.losses != b.losses) return a.losses < b.losses ? -1 : 1;
+        return a.userId.compareTo(b.userId);
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Player> players = new HashMap<>();
+    private final Set<String> appliedDares = new HashSet<>();
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rankAt = new int[MAX_LEVEL];
+    private int level = 1;
+    private int length;
+
+    // Fed by the store from then on: a dare is counted when a write moves it to completed
+    static Leaderboard attach(DareStore store) {
+        Leaderboard leaderboard = new Leaderboard();
+        store.subscribe(change -> {
+            if (change.kind() != DareStore.ChangeKind.REMOVE && "completed".equals(change.status())
+                    && !"completed".equals(change.previousStatus())) {
+                leaderboard.ingest(change.dare());
+            }
+        });
+        for (Dare dare : store.all()) leaderboard.ingest(dare);
+        return leaderboard;
+    }
+
+    // Each dare is counted once, however many times its completion is delivered
+    boolean onDareCompleted(String dareId, String winnerId, String[] participants, int entryStake) {
+        lock.writeLock().lock();
+        try {
+            if (!appliedDares.add(dareId)) return false;
+            if (winnerId != null) {
+                adjust(winnerId, 1, 0, entryStake);
+            }
+            for (String participant : participants) {
+                if (participant.equals(winnerId)) continue;
+                adjust(participant, 0, winnerId != null ? 1 : 0, 0);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean ingest(Dare dare) {
+        if (!"completed".equals(dare.status)) return false;
+        return onDareCompleted(dare.id, dare.winnerId, dare.participants, dare.entryStake);
+    }
+
+    List<Standing> top(int k) {
+        lock.readLock().lock();
+        try {
+            List<Standing> result = new ArrayList<>(Math.min(k, length));
+            Node x = head.next[0];
+            for (int rank = 1; x != null && rank <= k; rank++, x = x.next[0]) {
+                result.add(standing(x.player, rank));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based rank, or -1 if the user has no completed dares
+    int rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            Player player = players.get(userId);
+            return player != null ? rank(player) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Optional<Standing> standingOf(String userId) {
+        lock.readLock().lock();
+        try {
+            Player player = players.get(userId);
+            return player != null ? Optional.of(standing(player, rank(player))) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The user plus up to `radius` players directly above and below
+    List<Standing> around(String userId, int radius) {
+        lock.readLock().lock();
+        try {
+            Player player = players.get(userId);
+            if (player == null) return List.of();
+            int rank = rank(player);
+            int from = Math.max(1, rank - radius);
+            int to = Math.min(length, rank + radius);
+            List<Standing> result = new ArrayList<>(to - from + 1);
+            Node x = select(from);
+            for (int r = from; x != null && r <= to; r++, x = x.next[0]) {
+                result.add(standing(x.player, r));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Standing standing(Player p, int rank) {
+        return new Standing(rank, p.userId, p.wins, p.losses, p.stonesEarned);
+    }
+
+    private void adjust(String userId, int wins, int losses, long stones) {
+        Player player = players.get(userId);
+        if (player == null) {
+            player = new Player(userId);
+            players.put(userId, player);
+            apply(player, wins, losses, stones);
+            insert(player);
+            return;
+        }
+        // Most updates move a player by a few places at most: if it still sorts between
+        // its neighbours the list stays ordered and no relinking is needed.
+        Node prev = player.node.backward;
+        Node next = player.node.next[0];
+        apply(player, wins, losses, stones);
+        if ((prev == null || compare(prev.player, player) < 0) && (next == null || compare(player, next.player) < 0)) {
+            return;
+        }
+        apply(player, -wins, -losses, -stones);
+        delete(player);
+        apply(player, wins, losses, stones);
+        insert(player);
+    }
+
+    private static void apply(Player player, int wins, int losses, long stones) {
+        player.wins += wins;
+        player.losses += losses;
+        player.stonesEarned += stones;
+    }
+
+    private void insert(Player player) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rankAt[i] = i == level - 1 ? 0 : rankAt[i + 1];
+            while (x.next[i] != null && compare(x.next[i].player, player) < 0) {
+                rankAt[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rankAt[i] = 0;
+                update[i] = head;
+                head.span[i] = length;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(player, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rankAt[0] - rankAt[i]);
+            update[i].span[i] = (rankAt[0] - rankAt[i]) + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        node.backward = update[0] == head ? null : update[0];
+        if (node.next[0] != null) node.next[0].backward = node;
+        player.node = node;
+        length++;
+    }
+
+    private void delete(Player player) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].player, player) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        if (target != player.node) {
+            throw new IllegalStateException("Leaderboard out of sync for " + player.userId);
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        if (target.next[0] != null) target.next[0].backward = target.backward;
+        player.node = null;
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        length--;
+    }
+
+    private int rank(Player player) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].player, player) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x.player == player) return rank;
+        }
+        return -1;
+    }
+
+    private Node select(int rank) {
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) return x;
+        }
+        return null;
+    }
+
+    private static int randomLevel() {
+        int lvl = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && random.nextInt(4) == 0) lvl++;
+        return lvl;
+    }
+}
@@ -8,8 +8,13 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        AchievementPage page = new AchievementPage();
+        DareEvents.startRecordingIfEnabled();
+        // Shows the page shell first and adds the cards over the next pulses;
+        // -Dachievements.eager=true builds everything before the stage is shown
+        AchievementPage page = new AchievementPage(!Boolean.getBoolean("achievements.eager"));
         Scene scene = new Scene(page.getView(), 400, 600);
+        DareEvents.installPulseEvents(scene, "Harco Achievement");
+        StartupProbe.installIfEnabled(scene, page);
 
         primaryStage.setTitle("Harco Achievement");
         primaryStage.setScene(scene);
@@ -0,0 +1,431 @@
+package com.example;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Dare-invite notifications (the onDareCreate trigger): an inbox entry, a push and an email per invitee.
+// Events queue in a bounded intake; a dispatch loop groups them into batches and resolves every user a
+// batch mentions in one directory lookup, through a short-lived single-flight cache. The messages go to
+// per-channel lanes whose virtual-thread workers (the channel's concurrency limit) send them in
+// sink-sized batches with retries. A slow channel only fills its own lane; once it is full,
+// resolution stalls, the loop stops draining and submit() blocks.
+class NotificationDispatcher implements AutoCloseable {
+
+    enum Channel { INBOX, PUSH, EMAIL }
+
+    record ChannelLimits(int concurrency, int maxBatch, int maxAttempts) {}
+
+    record DispatchConfig(int queueCapacity, int maxBatch, Duration linger, int maxInFlightBatches,
+                          Duration userCacheTtl, Duration retryBackoff, Map<Channel, ChannelLimits> channels) {
+        // FCM sendEach takes up to 500 messages; SMTP sessions pipeline up to 100 messages each
+        static final DispatchConfig DEFAULT = new DispatchConfig(10_000, 256, Duration.ofMillis(5), 16,
+            Duration.ofSeconds(30), Duration.ofMillis(50), Map.of(
+                Channel.INBOX, new ChannelLimits(8, 256, 5),
+                Channel.PUSH, new ChannelLimits(4, 500, 5),
+                Channel.EMAIL, new ChannelLimits(8, 100, 5)));
+    }
+
+    record DareCreated(String dareId, String title, String challengerId, String opponentId, LocalDateTime acceptBy) {}
+
+    record UserProfile(String userId, String username, String fcmToken, String email) {}
+
+    record InboxNotification(String userId, String dareId, String title, String body, String type, LocalDateTime expiresAt) {}
+
+    record PushMessage(String token, String title, String body, Map<String, String> data) {}
+
+    record MailMessage(String to, String from, String subject, String text) {}
+
+    record ChannelStats(long delivered, long failed, long retries, long p50Micros, long p99Micros, long maxMicros) {}
+
+    interface UserDirectory {
+        // Missing users are simply absent from the result
+        Map<String, UserProfile> lookup(Set<String> userIds) throws Exception;
+    }
+
+    interface Sink<T> {
+        // Delivers the whole batch or throws; a failed batch is retried as a unit
+        void deliver(List<T> batch) throws Exception;
+    }
+
+    private record Pending(DareCreated event, long enqueuedAt) {}
+
+    private record Outgoing<T>(T message, long enqueuedAt) {}
+
+    private record CachedUser(CompletableFuture<UserProfile> profile, long expiresAt) {}
+
+    private final UserDirectory directory;
+    private final DispatchConfig config;
+    private final BlockingQueue<Pending> intake;
+    private final Semaphore inFlight;
+    private final ConcurrentHashMap<String, CachedUser> users = new ConcurrentHashMap<>();
+    private final LongAdder directoryLookups = new LongAdder();
+    private final Lane<InboxNotification> inbox;
+    private final Lane<PushMessage> push;
+    private final Lane<MailMessage> mail;
+    private final Map<Channel, Lane<?>> lanes = new EnumMap<>(Channel.class);
+    private final Thread loop;
+    // submit() holds the read side from its closed check through the enqueue; close() takes the write
+    // side once, so after that no event can slip into the intake behind the loop's last drain
+    private final ReadWriteLock intakeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    private volatile boolean intakeClosed;
+    private volatile boolean lanesClosed;
+
+    NotificationDispatcher(UserDirectory directory, Sink<InboxNotification> inbox, Sink<PushMessage> push,
+                           Sink<MailMessage> mail) {
+        this(directory, inbox, push, mail, DispatchConfig.DEFAULT);
+    }
+
+    NotificationDispatcher(UserDirectory directory, Sink<InboxNotification> inbox, Sink<PushMessage> push,
+                           Sink<MailMessage> mail, DispatchConfig config) {
+        this.directory = directory;
+        this.config = config;
+        intake = new ArrayBlockingQueue<>(config.queueCapacity);
+        inFlight = new Semaphore(config.maxInFlightBatches);
+        this.inbox = new Lane<>(Channel.INBOX, inbox);
+        this.push = new Lane<>(Channel.PUSH, push);
+        this.mail = new Lane<>(Channel.EMAIL, mail);
+        lanes.put(Channel.INBOX, this.inbox);
+        lanes.put(Channel.PUSH, this.push);
+        lanes.put(Channel.EMAIL, this.mail);
+        loop = Thread.ofVirtual().name("notification-dispatch").start(this::dispatchLoop);
+    }
+
+    // One invite per participant other than the creator
+    void dareCreated(Dare dare) throws InterruptedException {
+        for (String participant : dare.participants) {
+            if (!participant.equals(dare.creatorId)) {
+                submit(new DareCreated(dare.id, dare.title, dare.creatorId, participant, dare.deadline));
+            }
+        }
+    }
+
+    // Blocks while the intake is full
+    void submit(DareCreated event) throws InterruptedException {
+        intakeLock.readLock().lockInterruptibly();
+        try {
+            if (closed) throw new IllegalStateException("Notification dispatcher is closed");
+            intake.put(new Pending(event, System.nanoTime()));
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+    }
+
+    // Returns false if the intake stayed full for the whole timeout
+    boolean submit(DareCreated event, Duration timeout) throws InterruptedException {
+        intakeLock.readLock().lockInterruptibly();
+        try {
+            if (closed) throw new IllegalStateException("Notification dispatcher is closed");
+            return intake.offer(new Pending(event, System.nanoTime()), timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+    }
+
+    int queued() {
+        return intake.size();
+    }
+
+    long directoryLookups() {
+        return directoryLookups.sum();
+    }
+
+    ChannelStats stats(Channel channel) {
+        Counters c = lanes.get(channel).counters;
+        return new ChannelStats(c.delivered.sum(), c.failed.sum(), c.retries.sum(),
+            c.latency.percentile(0.50), c.latency.percentile(0.99), c.latency.max());
+    }
+
+    // Delivers everything already submitted, then stops
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        // Waits out submits already past the check; the loop keeps draining, so one blocked on a full
+        // intake still gets in
+        intakeLock.writeLock().lock();
+        intakeLock.writeLock().unlock();
+        intakeClosed = true;
+        loop.join();
+        inFlight.acquire(config.maxInFlightBatches);
+        lanesClosed = true;
+        for (Lane<?> lane : lanes.values()) lane.join();
+    }
+
+    private void dispatchLoop() {
+        while (!intakeClosed || !intake.isEmpty()) {
+            try {
+                Pending first = intake.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                List<Pending> batch = new ArrayList<>(config.maxBatch);
+                batch.add(first);
+                long deadline = System.nanoTime() + config.linger.toNanos();
+                while (batch.size() < config.maxBatch) {
+                    if (intake.drainTo(batch, config.maxBatch - batch.size()) > 0) continue;
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) break;
+                    Pending next = intake.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // With every batch slot stuck on a full lane, the intake fills up behind us
+                inFlight.acquire();
+                Thread.ofVirtual().name("notification-resolve").start(() -> {
+                    try {
+                        dispatch(batch);
+                    } catch (InterruptedException e) {
+                        System.err.println("Dropped " + batch.size() + " dare invites on interrupt");
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                if (intakeClosed) return;
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) throws InterruptedException {
+        Map<String, UserProfile> profiles = resolve(batch);
+        for (Pending p : batch) {
+            DareCreated e = p.event;
+            UserProfile challenger = profiles.get(e.challengerId);
+            UserProfile opponent = profiles.get(e.opponentId);
+            String name = challenger != null && challenger.username != null ? challenger.username : "Someone";
+            String body = name + " has challenged you to: \"" + e.title + "\"";
+            inbox.put(new InboxNotification(e.opponentId, e.dareId, "🏆 New Dare Challenge!", body, "dare_invite",
+                e.acceptBy), p.enqueuedAt);
+            if (opponent == null) continue;
+            if (opponent.fcmToken != null) {
+                push.put(new PushMessage(opponent.fcmToken, "🏆 New Dare Challenge!", body,
+                    Map.of("dareId", e.dareId, "type", "dare_invite")), p.enqueuedAt);
+            }
+            if (opponent.email != null) {
+                mail.put(new MailMessage(opponent.email, "no-reply@dareapp.io", "🏆 New Dare Challenge",
+                    body + "\n\nAccept within 3 days!"), p.enqueuedAt);
+            }
+        }
+    }
+
+    // Exponential with full jitter, so batches that failed together do not retry together
+    private boolean backoff(int attempt) {
+        long cap = config.retryBackoff.toNanos() << Math.min(attempt - 1, 10);
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Every challenger and opponent in the batch, with one directory round-trip for the misses.
+    // Concurrent batches asking for the same user share the first one's lookup.
+    private Map<String, UserProfile> resolve(List<Pending> batch) {
+        Set<String> ids = new HashSet<>();
+        for (Pending p : batch) {
+            ids.add(p.event.challengerId);
+            ids.add(p.event.opponentId);
+        }
+        long now = System.nanoTime();
+        long expiresAt = now + config.userCacheTtl.toNanos();
+        Map<String, CompletableFuture<UserProfile>> futures = new HashMap<>();
+        Map<String, CompletableFuture<UserProfile>> owned = new HashMap<>();
+        for (String id : ids) {
+            CachedUser cached = users.compute(id, (key, existing) -> {
+                if (existing != null && existing.expiresAt - now > 0) return existing;
+                CompletableFuture<UserProfile> future = new CompletableFuture<>();
+                owned.put(key, future);
+                return new CachedUser(future, expiresAt);
+            });
+            futures.put(id, cached.profile);
+        }
+
+        if (!owned.isEmpty()) {
+            directoryLookups.increment();
+            Map<String, UserProfile> found = lookupWithRetry(owned.keySet());
+            for (Map.Entry<String, CompletableFuture<UserProfile>> e : owned.entrySet()) {
+                if (found == null) {
+                    // Do not cache a failed lookup
+                    users.remove(e.getKey(), new CachedUser(e.getValue(), expiresAt));
+                    e.getValue().complete(null);
+                } else {
+                    e.getValue().complete(found.get(e.getKey()));
+                }
+            }
+        }
+        if (users.size() > 4 * config.maxBatch * config.maxInFlightBatches) {
+            users.values().removeIf(cached -> cached.expiresAt - now <= 0);
+        }
+
+        Map<String, UserProfile> profiles = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<UserProfile>> e : futures.entrySet()) {
+            UserProfile profile = e.getValue().join();
+            if (profile != null) profiles.put(e.getKey(), profile);
+        }
+        return profiles;
+    }
+
+    private Map<String, UserProfile> lookupWithRetry(Set<String> ids) {
+        int attempts = config.channels.get(Channel.INBOX).maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return directory.lookup(Set.copyOf(ids));
+            } catch (Exception e) {
+                if (attempt >= attempts) {
+                    System.err.println("User lookup failed for " + ids.size() + " users: " + e);
+                    return null;
+                }
+                if (!backoff(attempt)) return null;
+            }
+        }
+    }
+
+    // One channel's queue and its workers. A free worker takes whatever has queued up, to the sink's
+    // batch size, so batches grow with load instead of waiting on a timer.
+    private final class Lane<T> {
+        private final Channel channel;
+        private final Sink<T> sink;
+        private final ChannelLimits limits;
+        private final BlockingQueue<Outgoing<T>> queue;
+        private final Counters counters = new Counters();
+        private final List<Thread> workers = new ArrayList<>();
+
+        Lane(Channel channel, Sink<T> sink) {
+            this.channel = channel;
+            this.sink = sink;
+            limits = config.channels.get(channel);
+            queue = new ArrayBlockingQueue<>(2 * limits.concurrency * limits.maxBatch);
+            for (int i = 0; i < limits.concurrency; i++) {
+                workers.add(Thread.ofVirtual().name("notification-" + channel.name().toLowerCase() + "-" + i).start(this::work));
+            }
+        }
+
+        // Blocks while the channel is saturated, which stalls resolution and, behind it, the intake
+        void put(T message, long enqueuedAt) throws InterruptedException {
+            queue.put(new Outgoing<>(message, enqueuedAt));
+        }
+
+        void join() throws InterruptedException {
+            for (Thread worker : workers) worker.join();
+        }
+
+        private void work() {
+            List<Outgoing<T>> chunk = new ArrayList<>(limits.maxBatch);
+            List<T> payload = new ArrayList<>(limits.maxBatch);
+            while (!(lanesClosed && queue.isEmpty())) {
+                try {
+                    Outgoing<T> first = queue.poll(50, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    chunk.add(first);
+                    queue.drainTo(chunk, limits.maxBatch - 1);
+                    for (Outgoing<T> o : chunk) payload.add(o.message);
+                    if (!deliver(payload)) return;
+                    long now = System.nanoTime();
+                    for (Outgoing<T> o : chunk) counters.latency.record((now - o.enqueuedAt) / 1000);
+                    counters.delivered.add(chunk.size());
+                } catch (InterruptedException e) {
+                    return;
+                } catch (DeliveryFailed e) {
+                    counters.failed.add(chunk.size());
+                    System.err.println("Dropping " + chunk.size() + " " + channel + " notifications after "
+                        + limits.maxAttempts + " attempts: " + e.getCause());
+                } finally {
+                    chunk.clear();
+                    payload.clear();
+                }
+            }
+        }
+
+        // False if interrupted while backing off
+        private boolean deliver(List<T> payload) throws DeliveryFailed {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    sink.deliver(payload);
+                    return true;
+                } catch (InterruptedException e) {
+                    return false;
+                } catch (Exception e) {
+                    if (attempt >= limits.maxAttempts) throw new DeliveryFailed(e);
+                    counters.retries.increment();
+                    if (!backoff(attempt)) return false;
+                }
+            }
+        }
+    }
+
+    private static final class DeliveryFailed extends Exception {
+        DeliveryFailed(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder delivered = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    // Log-linear microsecond buckets: exact below 16us, then 16 sub-buckets per power of two (~6% error)
+    private static final class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private final AtomicLongArray counts = new AtomicLongArray((65 - SUB_BITS) * SUB);
+        private final LongAdder total = new LongAdder();
+
+        void record(long micros) {
+            counts.incrementAndGet(index(Math.max(0, micros)));
+            total.increment();
+        }
+
+        long percentile(double p) {
+            long n = total.sum();
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(p * n);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(counts.length() - 1);
+        }
+
+        long max() {
+            for (int i = counts.length() - 1; i >= 0; i--) {
+                if (counts.get(i) > 0) return upperBound(i);
+            }
+            return 0;
+        }
+
+        private static int index(long v) {
+            if (v < SUB) return (int) v;
+            int msb = 63 - Long.numberOfLeadingZeros(v);
+            return (msb - SUB_BITS + 1) * SUB + (int) ((v >>> (msb - SUB_BITS)) & (SUB - 1));
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB) return index;
+            int msb = index / SUB + SUB_BITS - 1;
+            long lower = (long) (SUB + index % SUB) << (msb - SUB_BITS);
+            return lower + (1L << (msb - SUB_BITS)) - 1;
+        }
+    }
+}
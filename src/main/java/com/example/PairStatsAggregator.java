@@ -0,0 +1,402 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Incremental per-pair dare stats (total_dares, current_streak, last_dare_date), matching the
+// backend's updateFriendStats: a dare within two days of the previous one extends the streak.
+// Pairs are keyed by the canonical (min id, max id) of interned users packed into a long, in an
+// open-addressing table that maps to a dense pair index; the stats are parallel int arrays.
+class PairStatsAggregator {
+    private static final int STREAK_WINDOW_DAYS = 2;
+    private static final long EMPTY = -1L;
+
+    record PairStats(String userA, String userB, int totalDares, int currentStreak, LocalDate lastDareDate) {}
+
+    private final UserIds users;
+
+    // key -> pair index
+    private long[] keys;
+    private int[] slots;
+    private int mask;
+
+    // Per pair
+    private int pairCount;
+    private long[] pairKeys;
+    private int[] totalDares;
+    private int[] currentStreak;
+    private int[] lastDareDay;
+
+    // Per user: indexes of the pairs it belongs to
+    private int[][] userPairs = new int[0][];
+    private int[] userPairCount = new int[0];
+
+    private volatile long version;
+
+    PairStatsAggregator(UserIds users) {
+        this(users, 1024);
+    }
+
+    PairStatsAggregator(UserIds users, int expectedPairs) {
+        this.users = users;
+        int capacity = Integer.highestOneBit(Math.max(16, expectedPairs * 2 - 1)) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[capacity];
+        mask = capacity - 1;
+        int pairs = Math.max(16, expectedPairs);
+        pairKeys = new long[pairs];
+        totalDares = new int[pairs];
+        currentStreak = new int[pairs];
+        lastDareDay = new int[pairs];
+    }
+
+    // Fed by the store from then on: a dare counts, as completed today, when a write moves it to
+    // completed. Dares already completed in the store are counted too.
+    static PairStatsAggregator attach(DareStore store, UserIds users) {
+        PairStatsAggregator aggregator = new PairStatsAggregator(users);
+        store.subscribe(change -> {
+            if (change.kind() != DareStore.ChangeKind.REMOVE && "completed".equals(change.status())
+                    && !"completed".equals(change.previousStatus())) {
+                aggregator.ingest(change.dare(), LocalDate.now());
+            }
+        });
+        for (Dare dare : store.all()) {
+            if ("completed".equals(dare.status)) aggregator.ingest(dare, LocalDate.now());
+        }
+        return aggregator;
+    }
+
+    // Every pair of participants of a completed dare shares the dare
+    synchronized void ingest(Dare dare, LocalDate completedOn) {
+        String[] participants = dare.participants;
+        int day = (int) completedOn.toEpochDay();
+        for (int i = 0; i < participants.length; i++) {
+            for (int j = i + 1; j < participants.length; j++) {
+                record(users.intern(participants[i]), users.intern(participants[j]), day);
+            }
+        }
+    }
+
+    synchronized void onDareCompleted(String userA, String userB, LocalDate completedOn) {
+        record(users.intern(userA), users.intern(userB), (int) completedOn.toEpochDay());
+    }
+
+    synchronized PairStats get(String userA, String userB) {
+        int a = users.find(userA), b = users.find(userB);
+        if (a < 0 || b < 0 || a == b) return null;
+        int pair = find(pairKey(a, b));
+        return pair >= 0 ? stats(pair) : null;
+    }
+
+    // The backend's getDarePairs: every pair the user is part of
+    synchronized List<PairStats> pairsFor(String userId) {
+        int user = users.find(userId);
+        if (user < 0 || user >= userPairCount.length) return List.of();
+        int count = userPairCount[user];
+        List<PairStats> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(stats(userPairs[user][i]));
+        }
+        return result;
+    }
+
+    interface PairVisitor {
+        void visit(int userA, int userB, int totalDares);
+    }
+
+    // Every pair with its UserIds ids, in no particular order
+    synchronized void forEachPair(PairVisitor visitor) {
+        for (int pair = 0; pair < pairCount; pair++) {
+            visitor.visit((int) (pairKeys[pair] >>> 32), (int) pairKeys[pair], totalDares[pair]);
+        }
+    }
+
+    synchronized int pairCount() {
+        return pairCount;
+    }
+
+    // Bumped by every recorded dare
+    long version() {
+        return version;
+    }
+
+    private PairStats stats(int pair) {
+        String a = users.name((int) (pairKeys[pair] >>> 32));
+        String b = users.name((int) pairKeys[pair]);
+        if (a.compareTo(b) > 0) {
+            String t = a;
+            a = b;
+            b = t;
+        }
+        return new PairStats(a, b, totalDares[pair], currentStreak[pair], LocalDate.ofEpochDay(lastDareDay[pair]));
+    }
+
+    // O(1) expected: one probe sequence plus three array writes
+    private void record(int a, int b, int day) {
+        if (a == b) return;
+        long key = pairKey(a, b);
+        int pair = find(key);
+        if (pair < 0) {
+            pair = addPair(key);
+            totalDares[pair] = 1;
+            currentStreak[pair] = 1;
+        } else {
+            totalDares[pair]++;
+            currentStreak[pair] = day - lastDareDay[pair] <= STREAK_WINDOW_DAYS ? currentStreak[pair] + 1 : 1;
+        }
+        lastDareDay[pair] = day;
+        version++;
+    }
+
+    private static long pairKey(int a, int b) {
+        int lo = Math.min(a, b), hi = Math.max(a, b);
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // Uses the high hash bits, the table probes with the low ones
+    private static int shardOf(long key, int shards) {
+        return (int) (((hash(key) & 0xFFFFFFFFL) * shards) >>> 32);
+    }
+
+    private int find(long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return slots[i];
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    private int addPair(long key) {
+        if (pairCount == pairKeys.length) growPairs();
+        if ((pairCount + 1) * 2 > keys.length) rehash(keys.length * 2);
+        int pair = pairCount++;
+        pairKeys[pair] = key;
+        insertSlot(key, pair);
+        addUserPair((int) (key >>> 32), pair);
+        addUserPair((int) key, pair);
+        return pair;
+    }
+
+    private void insertSlot(long key, int pair) {
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) i = (i + 1) & mask;
+        keys[i] = key;
+        slots[i] = pair;
+    }
+
+    private void rehash(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int pair = 0; pair < pairCount; pair++) {
+            insertSlot(pairKeys[pair], pair);
+        }
+    }
+
+    private void growPairs() {
+        int capacity = pairKeys.length * 2;
+        pairKeys = Arrays.copyOf(pairKeys, capacity);
+        totalDares = Arrays.copyOf(totalDares, capacity);
+        currentStreak = Arrays.copyOf(currentStreak, capacity);
+        lastDareDay = Arrays.copyOf(lastDareDay, capacity);
+    }
+
+    private void addUserPair(int user, int pair) {
+        if (user >= userPairCount.length) {
+            int capacity = Math.max(user + 1, userPairCount.length * 2);
+            userPairs = Arrays.copyOf(userPairs, capacity);
+            userPairCount = Arrays.copyOf(userPairCount, capacity);
+        }
+        int[] list = userPairs[user];
+        int count = userPairCount[user];
+        if (list == null) {
+            list = userPairs[user] = new int[4];
+        } else if (count == list.length) {
+            list = userPairs[user] = Arrays.copyOf(list, count * 2);
+        }
+        list[count] = pair;
+        userPairCount[user] = count + 1;
+    }
+
+    // Rebuilds the aggregate from a dare history file with one completed dare per line, oldest first:
+    //   2025-10-17,user1,user2[,user3...]
+    // Chunks of the file are parsed in parallel and bucketed by pair hash into shards, so each
+    // shard replays its pairs in file order on its own aggregator; shards never share a pair.
+    static PairStatsAggregator rebuild(Path historyFile, UserIds users) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int shards = Integer.highestOneBit(Math.max(1, pool.getParallelism()) * 2 - 1) << 1;
+        try (FileChannel channel = FileChannel.open(historyFile, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, Math.max(shards * 4, (int) (channel.size() >>> 26) + 1));
+            int chunks = bounds.length - 1;
+            IntBuffer[][] buckets = new IntBuffer[chunks][shards];
+
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<RecursiveAction> tasks = new ArrayList<>(chunks);
+                    for (int c = 0; c < chunks; c++) {
+                        int chunk = c;
+                        tasks.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                try {
+                                    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]);
+                                    buckets[chunk] = parseChunk(buf, users, shards);
+                                } catch (IOException e) {
+                                    throw new java.io.UncheckedIOException(e);
+                                }
+                            }
+                        });
+                    }
+                    invokeAll(tasks);
+                }
+            });
+
+            PairStatsAggregator[] partial = new PairStatsAggregator[shards];
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<RecursiveAction> tasks = new ArrayList<>(shards);
+                    for (int s = 0; s < shards; s++) {
+                        int shard = s;
+                        tasks.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                PairStatsAggregator aggregator = new PairStatsAggregator(users);
+                                for (int c = 0; c < chunks; c++) {
+                                    IntBuffer events = buckets[c][shard];
+                                    for (int i = 0; i < events.size; i += 3) {
+                                        aggregator.record(events.data[i], events.data[i + 1], events.data[i + 2]);
+                                    }
+                                    buckets[c][shard] = null;
+                                }
+                                partial[shard] = aggregator;
+                            }
+                        });
+                    }
+                    invokeAll(tasks);
+                }
+            });
+
+            int total = 0;
+            for (PairStatsAggregator p : partial) total += p.pairCount;
+            PairStatsAggregator merged = new PairStatsAggregator(users, total);
+            for (PairStatsAggregator p : partial) {
+                for (int pair = 0; pair < p.pairCount; pair++) {
+                    int target = merged.addPair(p.pairKeys[pair]);
+                    merged.totalDares[target] = p.totalDares[pair];
+                    merged.currentStreak[target] = p.currentStreak[pair];
+                    merged.lastDareDay[target] = p.lastDareDay[pair];
+                }
+            }
+            return merged;
+        }
+    }
+
+    // Growable (a, b, day) triples
+    private static final class IntBuffer {
+        int[] data = new int[3 * 1024];
+        int size;
+
+        void add(int a, int b, int day) {
+            if (size + 3 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[size] = a;
+            data[size + 1] = b;
+            data[size + 2] = day;
+            size += 3;
+        }
+    }
+
+    // Splits the file at line boundaries
+    private static long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int c = 1; c < chunks; c++) {
+            long pos = Math.max(bounds[c - 1], size * c / chunks);
+            boolean found = false;
+            while (!found && pos < size) {
+                probe.clear();
+                int read = channel.read(probe, pos);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        pos += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) pos += read;
+            }
+            bounds[c] = Math.min(pos, size);
+        }
+        bounds[chunks] = size;
+        return bounds;
+    }
+
+    private static IntBuffer[] parseChunk(ByteBuffer buf, UserIds users, int shards) {
+        IntBuffer[] out = new IntBuffer[shards];
+        for (int s = 0; s < shards; s++) out[s] = new IntBuffer();
+        int[] participants = new int[8];
+        int limit = buf.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int end = pos;
+            while (end < limit && buf.get(end) != '\n') end++;
+            int lineEnd = end > pos && buf.get(end - 1) == '\r' ? end - 1 : end;
+            if (lineEnd - pos >= 10) {
+                int day = (int) LocalDate.of(digits(buf, pos, 4), digits(buf, pos + 5, 2), digits(buf, pos + 8, 2)).toEpochDay();
+                int count = 0;
+                int field = pos;
+                while (field < lineEnd && buf.get(field) != ',') field++;
+                while (field < lineEnd) {
+                    int start = field + 1;
+                    int stop = start;
+                    while (stop < lineEnd && buf.get(stop) != ',') stop++;
+                    if (stop > start) {
+                        byte[] name = new byte[stop - start];
+                        buf.get(start, name);
+                        if (count == participants.length) participants = Arrays.copyOf(participants, count * 2);
+                        participants[count++] = users.intern(new String(name, StandardCharsets.UTF_8));
+                    }
+                    field = stop;
+                }
+                for (int i = 0; i < count; i++) {
+                    for (int j = i + 1; j < count; j++) {
+                        int a = participants[i], b = participants[j];
+                        if (a == b) continue;
+                        out[shardOf(pairKey(a, b), shards)].add(a, b, day);
+                    }
+                }
+            }
+            pos = end + 1;
+        }
+        return out;
+    }
+
+    private static int digits(ByteBuffer buf, int pos, int len) {
+        int value = 0;
+        for (int i = 0; i < len; i++) value = value * 10 + (buf.get(pos + i) - '0');
+        return value;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Loads proof images off the FX thread, decoded straight to the target size.
+// Decoded bitmaps are kept in a byte-bounded LRU keyed by url + size, and optionally
+// spilled to a disk cache as raw ARGB so a restart does not fetch and decode again.
+// Views waiting for the same key share one fetch, and a key that failed is not fetched
+// again until FAILURE_RETRY_NANOS have passed, however often its card is rebound.
+class ProofImageLoader {
+    private static final String REQUEST_KEY = "proofImageLoader.request";
+    private static final String LOADED_KEY = "proofImageLoader.loaded";
+    private static final int DISK_MAGIC = 0x50524F46; // "PROF"
+    private static final long FAILURE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    record Key(String url, int width, int height) {}
+
+    // One fetch of a key, shared by every view waiting for it; cancelled once none is left
+    private static final class Fetch {
+        final CompletableFuture<Image> result = new CompletableFuture<>();
+        FutureTask<Image> task;
+        int waiters;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final long maxCacheBytes;
+    private final Path diskCacheDir;
+    private final Map<Key, Image> memoryCache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, Image> placeholders = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<Key, Fetch> inFlight = new HashMap<>();
+    // System.nanoTime() until which a failed key is not fetched again
+    private final Map<Key, Long> failedUntil = new ConcurrentHashMap<>();
+    private long cacheBytes;
+
+    ProofImageLoader(int threads, int queueCapacity, long maxCacheBytes, Path diskCacheDir) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "proof-image-loader-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, (r, pool) -> {
+                // Drop the oldest queued fetch so recently requested cards win; cancelling it marks it done
+                if (pool.getQueue().poll() instanceof Future<?> oldest) oldest.cancel(false);
+                if (!pool.isShutdown()) pool.execute(r);
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxCacheBytes = maxCacheBytes;
+        this.diskCacheDir = diskCacheDir;
+    }
+
+    // Shows a placeholder in the view right away and swaps in the decoded image once loaded.
+    // A newer load() or cancel() on the same view drops the pending request.
+    void load(ImageView view, String url, int width, int height) {
+        cancel(view);
+        view.getProperties().remove(LOADED_KEY);
+        Key key = new Key(url, width, height);
+        Image cached = getCached(key);
+        if (cached != null) {
+            view.setImage(cached);
+            view.getProperties().put(LOADED_KEY, key);
+            return;
+        }
+        view.setImage(placeholder(width, height));
+        if (recentlyFailed(key)) return;
+        Fetch fetch = join(key);
+        Pending pending = new Pending(key, fetch);
+        view.getProperties().put(REQUEST_KEY, pending);
+        fetch.result.thenAccept(image -> {
+            if (image == null) return;
+            Platform.runLater(() -> {
+                if (view.getProperties().get(REQUEST_KEY) == pending) {
+                    view.getProperties().remove(REQUEST_KEY);
+                    view.setImage(image);
+                    view.getProperties().put(LOADED_KEY, key);
+                }
+            });
+        });
+    }
+
+    // Called when a card scrolls out of view: keeps whatever is displayed, and stops the pending
+    // fetch unless another view still waits for it
+    void cancel(ImageView view) {
+        if (view.getProperties().remove(REQUEST_KEY) instanceof Pending p) {
+            synchronized (this) {
+                if (--p.fetch.waiters == 0) p.fetch.task.cancel(true);
+            }
+        }
+    }
+
+    boolean isLoaded(ImageView view) {
+        return view.getProperties().containsKey(LOADED_KEY);
+    }
+
+    boolean isPending(ImageView view) {
+        return view.getProperties().get(REQUEST_KEY) instanceof Pending p && !p.fetch.result.isDone();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Pending(Key key, Fetch fetch) {}
+
+    private synchronized Fetch join(Key key) {
+        Fetch fetch = inFlight.get(key);
+        if (fetch == null) {
+            Fetch created = fetch = new Fetch();
+            inFlight.put(key, created);
+            // done() also runs when the task is cancelled before it started, by cancel() or by the
+            // executor dropping it from a full queue
+            created.task = new FutureTask<>(() -> fetch(key)) {
+                @Override
+                protected void done() {
+                    Image image = null;
+                    try {
+                        if (!isCancelled()) image = get();
+                    } catch (ExecutionException e) {
+                        // A fetch that threw failed like one that got an error image; a cancelled one did not
+                        recordFailure(key);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    finish(key, created, image);
+                }
+            };
+            executor.execute(created.task);
+        }
+        fetch.waiters++;
+        return fetch;
+    }
+
+    private void finish(Key key, Fetch fetch, Image image) {
+        synchronized (this) {
+            inFlight.remove(key, fetch);
+        }
+        fetch.result.complete(image);
+    }
+
+    private boolean recentlyFailed(Key key) {
+        Long until = failedUntil.get(key);
+        if (until == null) return false;
+        if (System.nanoTime() - until < 0) return true;
+        failedUntil.remove(key, until);
+        return false;
+    }
+
+    private void recordFailure(Key key) {
+        long now = System.nanoTime();
+        if (failedUntil.size() >= 1024) failedUntil.values().removeIf(until -> now - until >= 0);
+        failedUntil.put(key, now + FAILURE_RETRY_NANOS);
+    }
+
+    private Image fetch(Key key) {
+        DareEvents.ImageLoad event = new DareEvents.ImageLoad();
+        event.begin();
+        event.url = key.url;
+        event.source = "memory";
+        Image image = getCached(key);
+        if (image == null) {
+            Path diskFile = diskFile(key);
+            if (diskFile != null && Files.isRegularFile(diskFile)) {
+                event.source = "disk";
+                image = readDisk(diskFile);
+            }
+            if (image == null) {
+                // Decodes directly to the target size; background loading is off because we are already on a worker
+                event.source = "network";
+                image = new Image(key.url, key.width, key.height, true, true, false);
+                if (image.isError()) {
+                    recordFailure(key);
+                    event.failed = true;
+                    event.commit();
+                    return null;
+                }
+                if (diskFile != null) writeDisk(diskFile, image);
+            }
+            putCached(key, image);
+        }
+        event.bytes = sizeOf(image);
+        event.commit();
+        return image;
+    }
+
+    private synchronized Image getCached(Key key) {
+        return memoryCache.get(key);
+    }
+
+    private synchronized void putCached(Key key, Image image) {
+        Image previous = memoryCache.put(key, image);
+        if (previous != null) cacheBytes -= sizeOf(previous);
+        cacheBytes += sizeOf(image);
+        var it = memoryCache.entrySet().iterator();
+        while (cacheBytes > maxCacheBytes && it.hasNext()) {
+            Map.Entry<Key, Image> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            cacheBytes -= sizeOf(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private Image placeholder(int width, int height) {
+        return placeholders.computeIfAbsent(new Key("", width, height), k -> {
+            WritableImage image = new WritableImage(width, height);
+            int argb = toArgb(Color.web("#333333"));
+            int[] row = new int[width];
+            java.util.Arrays.fill(row, argb);
+            for (int y = 0; y < height; y++) {
+                image.getPixelWriter().setPixels(0, y, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+            }
+            return image;
+        });
+    }
+
+    private static int toArgb(Color c) {
+        return ((int) Math.round(c.getOpacity() * 255) << 24) | ((int) Math.round(c.getRed() * 255) << 16)
+            | ((int) Math.round(c.getGreen() * 255) << 8) | (int) Math.round(c.getBlue() * 255);
+    }
+
+    private Path diskFile(Key key) {
+        if (diskCacheDir == null) return null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((key.url + '@' + key.width + 'x' + key.height).getBytes(StandardCharsets.UTF_8));
+            return diskCacheDir.resolve(HexFormat.of().formatHex(hash) + ".argb");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Image readDisk(Path file) {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.remaining() < 12 || buf.getInt() != DISK_MAGIC) return null;
+            int width = buf.getInt();
+            int height = buf.getInt();
+            if (buf.remaining() != width * height * 4) return null;
+            int[] pixels = new int[width * height];
+            buf.asIntBuffer().get(pixels);
+            WritableImage image = new WritableImage(width, height);
+            image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+            return image;
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable image cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDisk(Path file, Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        PixelReader reader = image.getPixelReader();
+        if (reader == null) return;
+        int[] pixels = new int[width * height];
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        ByteBuffer buf = ByteBuffer.allocate(12 + pixels.length * 4);
+        buf.putInt(DISK_MAGIC).putInt(width).putInt(height);
+        buf.asIntBuffer().put(pixels);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "proof", ".tmp");
+            Files.write(tmp, buf.array());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write image cache entry " + file + ": " + e.getMessage());
+        }
+    }
+}
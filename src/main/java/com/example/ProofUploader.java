@@ -0,0 +1,279 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Streams proof files into a content-addressed ChunkStore. The file is read through a FileChannel one
+// chunk at a time into a single reused buffer and each chunk is SHA-256 hashed as it goes by, so a
+// large video never sits in the heap. Chunks the store already has (the same proof picked twice) are
+// not sent again. A file is identified by the SHA-256 of its chunk hashes in order.
+//
+// Every stored chunk is checkpointed under an upload id made of the path, size and modification time.
+// Uploading the same unchanged file again continues after the last checkpoint without re-reading the
+// chunks before it. Only one transfer per upload id runs at a time. Image proofs also get a downscaled thumbnail, decoded on the uploader's threads.
+class ProofUploader {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    static final int THUMBNAIL_SIZE = 96;
+    private static final Set<String> IMAGE_TYPES = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+
+    // Content-addressed chunks plus the per-upload checkpoints that make uploads resumable
+    interface ChunkStore {
+        boolean contains(String chunkHash) throws IOException;
+
+        // Idempotent: storing a chunk that is already there changes nothing
+        void put(String chunkHash, ByteBuffer data) throws IOException;
+
+        // Chunk hashes checkpointed for an upload so far, for chunks 0..n-1 in file order; empty if
+        // the checkpoints are not exactly that
+        List<String> checkpoints(String uploadId) throws IOException;
+
+        // Only called once the chunk is stored, for chunk = the number of checkpoints so far
+        void checkpoint(String uploadId, int chunk, String chunkHash) throws IOException;
+
+        // Records the file's chunk list under its hash and drops the checkpoints
+        void finish(String uploadId, String fileHash, long size, List<String> chunkHashes) throws IOException;
+    }
+
+    record Result(String fileHash, long size, int chunks, int sent, int deduplicated, int resumed) {}
+
+    // One upload as a card sees it; the properties change on the UI executor
+    static final class Upload {
+        enum State { UPLOADING, DONE, FAILED }
+
+        final String key;
+        final Path file;
+        private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(State.UPLOADING);
+        private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+        private final ReadOnlyObjectWrapper<Image> thumbnail = new ReadOnlyObjectWrapper<>();
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final AtomicBoolean progressQueued = new AtomicBoolean();
+        private volatile double latestProgress;
+        private volatile boolean cancelled;
+
+        private Upload(String key, Path file) {
+            this.key = key;
+            this.file = file;
+        }
+
+        // Changes once, before result() completes, so a view can listen instead of adding callbacks
+        ReadOnlyObjectProperty<State> stateProperty() {
+            return state.getReadOnlyProperty();
+        }
+
+        ReadOnlyDoubleProperty progressProperty() {
+            return progress.getReadOnlyProperty();
+        }
+
+        ReadOnlyObjectProperty<Image> thumbnailProperty() {
+            return thumbnail.getReadOnlyProperty();
+        }
+
+        CompletableFuture<Result> result() {
+            return result;
+        }
+
+        // Stops after the chunk in flight; its checkpoints stay, so the next upload of the file resumes
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final ChunkStore store;
+    private final int chunkSize;
+    private final Executor ui;
+    private final ThreadPoolExecutor executor;
+    // Latest upload per key, running or finished
+    private final ConcurrentHashMap<String, Upload> uploads = new ConcurrentHashMap<>();
+    // Running transfers per upload id: the same file picked for two dares shares one checkpoint log,
+    // so its transfers take turns
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> transfers = new ConcurrentHashMap<>();
+
+    ProofUploader(ChunkStore store) {
+        this(store, DEFAULT_CHUNK_SIZE, 2, Platform::runLater);
+    }
+
+    // ui runs the property updates: Platform::runLater in the app, Runnable::run without a toolkit
+    ProofUploader(ChunkStore store, int chunkSize, int threads, Executor ui) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive");
+        this.store = store;
+        this.chunkSize = chunkSize;
+        this.ui = ui;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "proof-uploader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Starts uploading `file` for `key` (a dare id), or returns the upload still running for it
+    Upload upload(String key, Path file) {
+        Upload upload = new Upload(key, file);
+        Upload current = uploads.merge(key, upload, (previous, next) -> previous.result.isDone() ? next : previous);
+        if (current != upload) return current;
+        executor.execute(() -> {
+            Image thumbnail = thumbnail(file, THUMBNAIL_SIZE);
+            if (thumbnail != null) ui.execute(() -> upload.thumbnail.set(thumbnail));
+        });
+        executor.execute(() -> {
+            try {
+                Result result = transfer(file, upload);
+                ui.execute(() -> {
+                    upload.progress.set(1);
+                    upload.state.set(Upload.State.DONE);
+                    upload.result.complete(result);
+                });
+            } catch (IOException | RuntimeException e) {
+                ui.execute(() -> {
+                    upload.state.set(Upload.State.FAILED);
+                    upload.result.completeExceptionally(e);
+                });
+            }
+        });
+        return upload;
+    }
+
+    // Null if nothing was uploaded for the key
+    Upload current(String key) {
+        return uploads.get(key);
+    }
+
+    // Uploads on the calling thread
+    Result upload(Path file) throws IOException {
+        return transfer(file, null);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result transfer(Path file, Upload upload) throws IOException {
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        String uploadId = sha256Hex((file.toAbsolutePath() + "\n" + size + "\n" + modified + "\n" + chunkSize)
+            .getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        for (CompletableFuture<Void> running; (running = transfers.putIfAbsent(uploadId, mine)) != null; ) {
+            try {
+                running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for another upload of " + file);
+            } catch (ExecutionException e) {
+                // Never completed exceptionally
+            }
+        }
+        try {
+            return transfer(file, upload, uploadId, size, modified);
+        } finally {
+            transfers.remove(uploadId, mine);
+            mine.complete(null);
+        }
+    }
+
+    private Result transfer(Path file, Upload upload, String uploadId, long size, long modified) throws IOException {
+        int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+        List<String> hashes = new ArrayList<>(store.checkpoints(uploadId));
+        if (hashes.size() > chunks) {
+            throw new IOException("Upload " + uploadId + " has " + hashes.size() + " checkpoints for " + chunks + " chunks");
+        }
+        int resumed = hashes.size();
+        int sent = 0, deduplicated = 0;
+        MessageDigest digest = sha256();
+        ByteBuffer buf = ByteBuffer.allocateDirect((int) Math.min(chunkSize, Math.max(1, size)));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = (long) resumed * chunkSize;
+            progress(upload, position, size);
+            for (int chunk = resumed; chunk < chunks; chunk++) {
+                if (upload != null && upload.cancelled) throw new InterruptedIOException("Upload of " + file + " cancelled");
+                buf.clear().limit((int) Math.min(chunkSize, size - position));
+                while (buf.hasRemaining()) {
+                    if (channel.read(buf, position + buf.position()) < 0) throw new IOException(file + " shrank during upload");
+                }
+                buf.flip();
+                digest.update(buf);
+                buf.flip();
+                String hash = HexFormat.of().formatHex(digest.digest());
+                if (store.contains(hash)) {
+                    deduplicated++;
+                } else {
+                    store.put(hash, buf);
+                    sent++;
+                }
+                store.checkpoint(uploadId, chunk, hash);
+                hashes.add(hash);
+                position += buf.limit();
+                progress(upload, position, size);
+            }
+        }
+        if (Files.size(file) != size || Files.getLastModifiedTime(file).toMillis() != modified) {
+            throw new IOException(file + " changed during upload");
+        }
+        MessageDigest fileDigest = sha256();
+        HexFormat hex = HexFormat.of();
+        for (String hash : hashes) fileDigest.update(hex.parseHex(hash));
+        String fileHash = hex.formatHex(fileDigest.digest());
+        store.finish(uploadId, fileHash, size, hashes);
+        return new Result(fileHash, size, chunks, sent, deduplicated, resumed);
+    }
+
+    // Coalesced: at most one update is queued on the UI executor at a time
+    private void progress(Upload upload, long done, long size) {
+        if (upload == null) return;
+        upload.latestProgress = size == 0 ? 1 : (double) done / size;
+        if (upload.progressQueued.compareAndSet(false, true)) {
+            ui.execute(() -> {
+                upload.progressQueued.set(false);
+                upload.progress.set(upload.latestProgress);
+            });
+        }
+    }
+
+    // Decoded straight to the thumbnail size; null for videos and unreadable images
+    static Image thumbnail(Path file, int size) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!IMAGE_TYPES.contains(name.substring(name.lastIndexOf('.') + 1))) return null;
+        Image image = new Image(file.toUri().toString(), size, size, true, true, false);
+        if (image.isError()) {
+            System.err.println("Could not create proof thumbnail for " + file + ": " + image.getException());
+            return null;
+        }
+        return image;
+    }
+
+    static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
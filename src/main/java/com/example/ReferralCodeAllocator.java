@@ -0,0 +1,307 @@
+package com.example;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hands out the same 6-hex-digit referral codes as referral.js (24 bits), but from local state instead of
+// drawing random codes and asking Firestore whether each one exists. That loop needs ~1/(1-occupancy)
+// round-trips per code and, with its 10-attempt cap, fails a third of requests once the space is 90% full.
+//
+// Membership is an exact bitset over all 2^24 codes (2 MB), with a summary bit per 64-code word that
+// says the word is full, so a free word is found in O(1) expected probes at any occupancy. Threads take
+// whole words as allocation blocks through striped CAS slots and hand codes out of them without
+// touching shared state; a block's unused codes are simply not logged, so a restart frees them.
+// Consecutive slots are passed through an invertible 24-bit mix so codes do not look sequential.
+//
+// Owner, maxUses and usage count live in 256 lazily created shards of primitive arrays; redemptions
+// bump the usage byte with a CAS, so maxUses holds under any number of concurrent redeemers.
+// Allocations and redemptions are appended to a GroupCommitLog and replayed on open.
+class ReferralCodeAllocator implements AutoCloseable {
+    static final int CODE_BITS = 24;
+    static final int SPACE = 1 << CODE_BITS;
+    static final int DEFAULT_MAX_USES = 10;
+
+    private static final int MASK = SPACE - 1;
+    private static final int WORDS = SPACE / 64;
+    private static final int GROUPS = WORDS / 64;
+    private static final int SHARD_BITS = 16;
+    private static final int SLOT_MASK = (1 << SHARD_BITS) - 1;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Odd multipliers (invertible mod 2^24) for the code mix, and their inverses
+    private static final int M1 = 0x2C1B3D, M2 = 0x5BD1E5;
+    private static final int M1_INVERSE = inverse(M1), M2_INVERSE = inverse(M2);
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    enum Redemption { REDEEMED, UNKNOWN_CODE, EXHAUSTED, OWN_CODE }
+
+    private record Block(int word, long free) {}
+
+    private static final class Shard {
+        // Interned owner + 1, 0 while the code is free or still sitting in an allocation block
+        final int[] owners = new int[1 << SHARD_BITS];
+        final byte[] maxUses = new byte[1 << SHARD_BITS];
+        final byte[] uses = new byte[1 << SHARD_BITS];
+    }
+
+    private final UserIds users = new UserIds();
+    private final AtomicLongArray taken = new AtomicLongArray(WORDS);
+    // A set bit means the word is (probably) full; it is only a hint, tryClaim checks the word itself
+    private final AtomicLongArray full = new AtomicLongArray(GROUPS);
+    private final AtomicReferenceArray<Shard> shards = new AtomicReferenceArray<>(SPACE >>> SHARD_BITS);
+    private final AtomicReferenceArray<Block> stripes;
+    private final int stripeShift;
+    private final LongAdder allocated = new LongAdder();
+
+    private final GroupCommitLog log;
+    private volatile boolean closed;
+
+    // Replays an existing allocation log, then appends to it
+    ReferralCodeAllocator(Path logFile) throws IOException {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4) * 2 - 1);
+        stripes = new AtomicReferenceArray<>(stripeCount);
+        stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+        log = new GroupCommitLog(logFile, "referral-log", line -> apply(line.split("\t", -1)));
+        for (int word = 0; word < WORDS; word++) {
+            if (taken.get(word) == -1L) markFull(word);
+        }
+    }
+
+    String allocate(String ownerId) {
+        return allocate(ownerId, DEFAULT_MAX_USES);
+    }
+
+    // The code is usable right away; flush() makes it survive a crash, so call that before showing it to
+    // anyone. Enforcing one code per user stays with the caller (users/{uid}.referrals.code), as today.
+    String allocate(String ownerId, int maxUses) {
+        if (closed) throw new IllegalStateException("Referral code allocator is closed");
+        if (maxUses < 1 || maxUses > 255) throw new IllegalArgumentException("maxUses must be between 1 and 255: " + maxUses);
+        int owner = users.intern(ownerId);
+        int index = take();
+        Shard shard = shard(index);
+        int slot = index & SLOT_MASK;
+        shard.maxUses[slot] = (byte) maxUses;
+        // Published last, so a reader that sees the owner also sees maxUses
+        INTS.setRelease(shard.owners, slot, owner + 1);
+        allocated.increment();
+        String code = format(index);
+        append("A\t" + code + '\t' + GroupCommitLog.clean(ownerId) + '\t' + maxUses + '\n');
+        return code;
+    }
+
+    // Same checks as redeemReferral, minus "already used by this user", which is per-user state
+    Redemption redeem(String code, String userId) {
+        if (closed) throw new IllegalStateException("Referral code allocator is closed");
+        int index = parse(code);
+        Shard shard = index < 0 ? null : shards.get(index >>> SHARD_BITS);
+        if (shard == null) return Redemption.UNKNOWN_CODE;
+        int slot = index & SLOT_MASK;
+        int owner = (int) INTS.getAcquire(shard.owners, slot);
+        if (owner == 0) return Redemption.UNKNOWN_CODE;
+        int maxUses = shard.maxUses[slot] & 0xFF;
+        int uses;
+        do {
+            uses = (byte) BYTES.getVolatile(shard.uses, slot) & 0xFF;
+            if (uses >= maxUses) return Redemption.EXHAUSTED;
+            if (users.find(userId) == owner - 1) return Redemption.OWN_CODE;
+        } while (!BYTES.compareAndSet(shard.uses, slot, (byte) uses, (byte) (uses + 1)));
+        append("R\t" + code + '\t' + GroupCommitLog.clean(userId) + '\n');
+        return Redemption.REDEEMED;
+    }
+
+    boolean exists(String code) {
+        return ownerOf(code) != null;
+    }
+
+    // null for codes that were never handed out
+    String ownerOf(String code) {
+        int index = parse(code);
+        Shard shard = index < 0 ? null : shards.get(index >>> SHARD_BITS);
+        if (shard == null) return null;
+        int owner = (int) INTS.getAcquire(shard.owners, index & SLOT_MASK);
+        return owner == 0 ? null : users.name(owner - 1);
+    }
+
+    int usageCount(String code) {
+        int index = parse(code);
+        Shard shard = index < 0 ? null : shards.get(index >>> SHARD_BITS);
+        return shard == null ? 0 : (byte) BYTES.getVolatile(shard.uses, index & SLOT_MASK) & 0xFF;
+    }
+
+    long allocated() {
+        return allocated.sum();
+    }
+
+    double occupancy() {
+        return (double) allocated() / SPACE;
+    }
+
+    void awaitDurable(long seq) throws IOException, InterruptedException {
+        log.awaitDurable(seq);
+    }
+
+    // Waits until every allocation and redemption so far is logged
+    void flush() throws IOException, InterruptedException {
+        log.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        log.close();
+    }
+
+    // Takes one slot from this thread's stripe, refilling the stripe with a freshly claimed word when empty.
+    // A refill that loses the race to another thread keeps its one slot and gives the rest of the word back.
+    private int take() {
+        int s = (int) Thread.currentThread().threadId() * 0x9E3779B9 >>> stripeShift;
+        while (true) {
+            Block block = stripes.get(s);
+            if (block != null && block.free != 0) {
+                long bit = Long.lowestOneBit(block.free);
+                if (stripes.compareAndSet(s, block, new Block(block.word, block.free & ~bit))) {
+                    return block.word << 6 | Long.numberOfTrailingZeros(bit);
+                }
+                continue;
+            }
+            Block fresh = claimBlock();
+            long bit = Long.lowestOneBit(fresh.free);
+            Block rest = new Block(fresh.word, fresh.free & ~bit);
+            if (!stripes.compareAndSet(s, block, rest)) release(rest);
+            return fresh.word << 6 | Long.numberOfTrailingZeros(bit);
+        }
+    }
+
+    // Claims every free slot of a word that is not full, starting from a random group of 64 words
+    private Block claimBlock() {
+        int start = ThreadLocalRandom.current().nextInt(GROUPS);
+        for (int i = 0; i < GROUPS; i++) {
+            int group = (start + i) & (GROUPS - 1);
+            long open = ~full.get(group);
+            while (open != 0) {
+                Block block = tryClaim(group << 6 | Long.numberOfTrailingZeros(open));
+                if (block != null) return block;
+                open &= open - 1;
+            }
+        }
+        // The summary can in rare races mark a word full that is not; check the words themselves
+        for (int word = 0; word < WORDS; word++) {
+            Block block = tryClaim(word);
+            if (block != null) return block;
+        }
+        throw new IllegalStateException("Referral code space is exhausted");
+    }
+
+    private Block tryClaim(int word) {
+        long used;
+        while ((used = taken.get(word)) != -1L) {
+            if (taken.compareAndSet(word, used, -1L)) {
+                markFull(word);
+                return new Block(word, ~used);
+            }
+        }
+        markFull(word);
+        return null;
+    }
+
+    private void release(Block block) {
+        if (block.free == 0) return;
+        taken.getAndAccumulate(block.word, ~block.free, (a, b) -> a & b);
+        full.getAndAccumulate(block.word >>> 6, ~(1L << block.word), (a, b) -> a & b);
+    }
+
+    private void markFull(int word) {
+        long bit = 1L << word;
+        if ((full.get(word >>> 6) & bit) == 0) full.getAndAccumulate(word >>> 6, bit, (a, b) -> a | b);
+    }
+
+    private Shard shard(int index) {
+        int s = index >>> SHARD_BITS;
+        Shard shard = shards.get(s);
+        if (shard == null) {
+            shards.compareAndSet(s, null, new Shard());
+            shard = shards.get(s);
+        }
+        return shard;
+    }
+
+    static String format(int index) {
+        int code = mix(index);
+        char[] chars = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            chars[i] = HEX[code & 0xF];
+            code >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    // The slot index of a code, or -1 if it is not six upper-case hex digits
+    static int parse(String code) {
+        if (code == null || code.length() != 6) return -1;
+        int value = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = code.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+            if (digit < 0) return -1;
+            value = value << 4 | digit;
+        }
+        return unmix(value);
+    }
+
+    private static int mix(int x) {
+        x = (x * M1) & MASK;
+        x ^= x >>> 12;
+        x = (x * M2) & MASK;
+        return x ^ (x >>> 13);
+    }
+
+    private static int unmix(int x) {
+        x ^= x >>> 13;
+        x = (x * M2_INVERSE) & MASK;
+        x ^= x >>> 12;
+        return (x * M1_INVERSE) & MASK;
+    }
+
+    // Newton's iteration for the multiplicative inverse of an odd number mod 2^32
+    private static int inverse(int m) {
+        int inverse = m;
+        for (int i = 0; i < 5; i++) inverse *= 2 - m * inverse;
+        return inverse & MASK;
+    }
+
+    private void append(String line) {
+        log.append(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // One tab-separated line per event: "A", code, ownerId, maxUses or "R", code, redeemerId
+    private void apply(String[] f) {
+        int index = f.length >= 3 ? parse(f[1]) : -1;
+        if (index < 0) return;
+        Shard shard = shard(index);
+        int slot = index & SLOT_MASK;
+        if (f[0].equals("A") && f.length == 4) {
+            int maxUses;
+            try {
+                maxUses = Integer.parseInt(f[3]);
+            } catch (NumberFormatException e) {
+                return;
+            }
+            if (shard.owners[slot] == 0) allocated.increment();
+            taken.set(index >>> 6, taken.get(index >>> 6) | 1L << index);
+            shard.maxUses[slot] = (byte) maxUses;
+            shard.owners[slot] = users.intern(f[2]) + 1;
+        } else if (f[0].equals("R") && f.length == 3 && shard.owners[slot] != 0
+            && (shard.uses[slot] & 0xFF) < (shard.maxUses[slot] & 0xFF)) {
+            shard.uses[slot]++;
+        }
+    }
+}
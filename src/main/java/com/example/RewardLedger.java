@@ -0,0 +1,82 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-user reward balances (pendingRewards, stonesBalance) with an append-only journal.
+// Balances are LongAdders, so concurrent credits to the same user never block each other.
+// Credits go to a GroupCommitLog, whose single writer forces the journal once per batch.
+class RewardLedger implements AutoCloseable {
+
+    record Credit(String userId, String postId, String rewardType, String trigger, long pendingDelta, long stonesDelta) {}
+
+    record Balance(long pendingRewards, long stonesBalance) {}
+
+    private static final class Account {
+        final LongAdder pending = new LongAdder();
+        final LongAdder stones = new LongAdder();
+    }
+
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+    private final GroupCommitLog journal;
+    private volatile boolean closed;
+
+    // Replays an existing journal into the balances, then appends to it
+    RewardLedger(Path journalFile) throws IOException {
+        journal = new GroupCommitLog(journalFile, "reward-journal", this::replay);
+    }
+
+    // Applies the credit to the in-memory balance and returns its journal sequence number;
+    // awaitDurable(seq) blocks until it is on disk.
+    long credit(Credit credit) {
+        if (closed) throw new IllegalStateException("Reward ledger is closed");
+        long seq = journal.append(encode(credit));
+        apply(credit);
+        return seq;
+    }
+
+    Balance balance(String userId) {
+        Account account = accounts.get(userId);
+        return account == null ? new Balance(0, 0) : new Balance(account.pending.sum(), account.stones.sum());
+    }
+
+    void awaitDurable(long seq) throws IOException, InterruptedException {
+        journal.awaitDurable(seq);
+    }
+
+    // Waits until everything credited so far is journaled
+    void flush() throws IOException, InterruptedException {
+        journal.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        journal.close();
+    }
+
+    private void apply(Credit credit) {
+        Account account = accounts.computeIfAbsent(credit.userId, id -> new Account());
+        if (credit.pendingDelta != 0) account.pending.add(credit.pendingDelta);
+        if (credit.stonesDelta != 0) account.stones.add(credit.stonesDelta);
+    }
+
+    // One tab-separated line per credit: userId, postId, rewardType, trigger, pendingDelta, stonesDelta
+    static byte[] encode(Credit c) {
+        return (GroupCommitLog.clean(c.userId) + '\t' + GroupCommitLog.clean(c.postId) + '\t' + GroupCommitLog.clean(c.rewardType)
+            + '\t' + GroupCommitLog.clean(c.trigger) + '\t' + c.pendingDelta + '\t' + c.stonesDelta + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void replay(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 6) return;
+        try {
+            apply(new Credit(f[0], f[1], f[2], f[3], Long.parseLong(f[4]), Long.parseLong(f[5])));
+        } catch (NumberFormatException e) {
+            // Not written by encode; skip it
+        }
+    }
+}
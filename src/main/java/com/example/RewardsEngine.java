@@ -0,0 +1,79 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Java port of the reward rules in functions/rewardsEngine.js (REWARD_CONFIG): creation rewards
+// by post type, engagement rewards for likes/comments/shares on someone else's post, and
+// milestone rewards when a post's views cross 10/25/50/100. Credits go to a RewardLedger.
+// Unlike processMilestoneRewards, which breaks after the first threshold, an update that jumps past
+// several thresholds is credited for each of them: the JS never pays the skipped ones, since the
+// next update's previousViews is already beyond them.
+class RewardsEngine {
+
+    record RewardConfig(int creationBase, Map<String, Integer> creationTypes,
+                        Map<String, Integer> engagement, TreeMap<Long, Integer> milestones) {
+        static final RewardConfig DEFAULT = new RewardConfig(
+            10,
+            Map.of("text", 10, "image", 12, "video", 15, "challenge_update", 8, "dare_proof", 10, "story", 5),
+            Map.of("like", 2, "comment", 3, "share", 5),
+            new TreeMap<>(Map.of(10L, 5, 25L, 10, 50L, 15, 100L, 20)));
+    }
+
+    sealed interface RewardEvent permits PostCreated, Engagement, ViewsUpdated {}
+
+    record PostCreated(String postId, String authorId, String type) implements RewardEvent {}
+
+    record Engagement(String postId, String authorId, String engagerId, String engagementType) implements RewardEvent {}
+
+    record ViewsUpdated(String postId, String authorId, long previousViews, long newViews) implements RewardEvent {}
+
+    private final RewardConfig config;
+    private final RewardLedger ledger;
+
+    RewardsEngine(RewardLedger ledger) {
+        this(RewardConfig.DEFAULT, ledger);
+    }
+
+    RewardsEngine(RewardConfig config, RewardLedger ledger) {
+        this.config = config;
+        this.ledger = ledger;
+    }
+
+    // Evaluates the rules and credits the ledger; returns the journal sequence of the last credit, or -1
+    long process(RewardEvent event) {
+        long seq = -1;
+        for (RewardLedger.Credit credit : evaluate(event)) {
+            seq = ledger.credit(credit);
+        }
+        return seq;
+    }
+
+    List<RewardLedger.Credit> evaluate(RewardEvent event) {
+        return switch (event) {
+            case PostCreated e -> {
+                int amount = config.creationTypes.getOrDefault(e.type, config.creationBase);
+                // Creation rewards are auto-claimed by the backend: pending and balance both move
+                yield List.of(new RewardLedger.Credit(e.authorId, e.postId, "creation", "post_create", amount, amount));
+            }
+            case Engagement e -> {
+                Integer amount = config.engagement.get(e.engagementType);
+                if (amount == null) throw new IllegalArgumentException("Invalid engagement type: " + e.engagementType);
+                // No rewards for self-engagement
+                if (e.authorId.equals(e.engagerId)) yield List.of();
+                yield List.of(new RewardLedger.Credit(e.authorId, e.postId, "engagement", e.engagementType, amount, 0));
+            }
+            case ViewsUpdated e -> {
+                if (e.newViews <= e.previousViews) yield List.of();
+                List<RewardLedger.Credit> credits = new ArrayList<>(1);
+                // Thresholds in (previousViews, newViews]
+                for (Map.Entry<Long, Integer> m : config.milestones.subMap(e.previousViews, false, e.newViews, true).entrySet()) {
+                    credits.add(new RewardLedger.Credit(e.authorId, e.postId, "milestone", m.getKey() + "_views", m.getValue(), 0));
+                }
+                yield credits;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+
+// Prints time to first frame and time to interactive (every achievement card built and laid out),
+// both in ms since JVM start, then exits. Enabled with -Ddarecards.startupProbe=true; the AppCDS
+// training run in the builds and StartupBenchmark use it. "First frame" is the end of the first
+// pulse's layout pass, right before that frame is rendered.
+final class StartupProbe {
+    private StartupProbe() {
+    }
+
+    static void installIfEnabled(Scene scene, AchievementPage page) {
+        if (!Boolean.getBoolean("darecards.startupProbe")) return;
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        scene.addPostLayoutPulseListener(new Runnable() {
+            private boolean firstFrame, interactive;
+
+            @Override
+            public void run() {
+                if (!firstFrame) {
+                    firstFrame = true;
+                    System.out.println("[startup] first-frame " + (System.currentTimeMillis() - jvmStart) + " ms");
+                }
+                if (!interactive && page.isReady()) {
+                    interactive = true;
+                    System.out.println("[startup] interactive " + (System.currentTimeMillis() - jvmStart) + " ms");
+                    System.out.flush();
+                    Platform.runLater(Platform::exit);
+                }
+            }
+        });
+    }
+}
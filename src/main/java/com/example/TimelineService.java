@@ -0,0 +1,340 @@
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Home-feed timelines, fanned out on write. Every activity (dare completed, achievement earned, post
+// created) gets a sequence number and a slot in a fixed-size activity log; publishing pushes that
+// number into a fixed-size ring of each follower, one int[] per user: slot 0 counts pushes, the rest
+// hold the low 32 bits of the sequence numbers, with one spare slot so the entry a writer is
+// overwriting is never one a reader can return. Memory is bounded by the log plus (capacity + 2) ints
+// per user with a timeline; older entries are overwritten.
+//
+// Authors with CELEBRITY_FOLLOWERS or more followers switch to fan-out on read for good: their
+// activities go to a ring of their own (an outbox), and reading a timeline merges the user's ring with
+// the outboxes of the celebrities they follow, newest first. Each source is entered with a binary
+// search for the cursor, so a page costs O(log capacity + page * sources).
+//
+// Writers (publish, follow, unfollow) take the service lock; readers take no lock. A reader re-checks
+// a ring's push count (and the log's) after reading, seqlock style, and drops entries a concurrent
+// writer may have overwritten. Entries already delivered stay in a timeline after an unfollow.
+class TimelineService {
+    static final int DEFAULT_RING_CAPACITY = 64;
+    static final int DEFAULT_LOG_CAPACITY = 1 << 20;
+    static final int CELEBRITY_FOLLOWERS = 10_000;
+
+    enum Kind { DARE_COMPLETED, ACHIEVEMENT_EARNED, POST_CREATED }
+
+    record Activity(long seq, Kind kind, String actorId, String subjectId, String text, long timeMillis) {}
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int[] NONE = new int[0];
+    private static final Kind[] KINDS = Kind.values();
+
+    private final UserIds users;
+    private final int ringCapacity;
+    private final int celebrityFollowers;
+    private final int logMask;
+
+    // Activity log, slot = seq & logMask; published is the next sequence number
+    private final long[] logTime;
+    private final byte[] logKind;
+    private final int[] logActor;
+    private final String[] logSubject;
+    private final String[] logText;
+    private volatile long published;
+
+    // Indexed by UserIds id and grown by writers; readers only need the per-user arrays
+    private volatile int[][] rings = new int[1024][];
+    private volatile int[][] outboxes = new int[1024][];
+    private volatile int[][] celebritiesFollowed = new int[1024][];
+    private int[][] followers = new int[1024][];
+    private int[] followerCounts = new int[1024];
+    private int[][] following = new int[1024][];
+    private int[] followingCounts = new int[1024];
+
+    TimelineService(UserIds users) {
+        this(users, DEFAULT_RING_CAPACITY, DEFAULT_LOG_CAPACITY, CELEBRITY_FOLLOWERS);
+    }
+
+    // logCapacity is rounded up to a power of two
+    TimelineService(UserIds users, int ringCapacity, int logCapacity, int celebrityFollowers) {
+        if (ringCapacity < 1 || logCapacity < 1 || logCapacity > 1 << 30) throw new IllegalArgumentException("bad capacity");
+        this.users = users;
+        this.ringCapacity = ringCapacity;
+        this.celebrityFollowers = celebrityFollowers;
+        int slots = Integer.highestOneBit(logCapacity * 2 - 1);
+        this.logMask = slots - 1;
+        this.logTime = new long[slots];
+        this.logKind = new byte[slots];
+        this.logActor = new int[slots];
+        this.logSubject = new String[slots];
+        this.logText = new String[slots];
+    }
+
+    // Publishes a dare-completed activity by the winner (or the creator if there is none) whenever a
+    // dare in the store becomes completed
+    static TimelineService attach(DareStore store, UserIds users) {
+        TimelineService timelines = new TimelineService(users);
+        store.subscribe(change -> {
+            Dare dare = change.dare();
+            if (change.kind() != DareStore.ChangeKind.REMOVE && "completed".equals(change.status())
+                    && !"completed".equals(change.previousStatus())) {
+                timelines.publish(dare.winnerId != null ? dare.winnerId : dare.creatorId, Kind.DARE_COMPLETED,
+                    dare.id, dare.title, System.currentTimeMillis());
+            }
+        });
+        return timelines;
+    }
+
+    synchronized void follow(String followerId, String authorId) {
+        int follower = users.intern(followerId);
+        int author = users.intern(authorId);
+        if (follower == author) return;
+        ensureCapacity(Math.max(follower, author));
+        // Checked on the follower's side: a celebrity's follower list can be huge
+        if (indexOf(following[follower], followingCounts[follower], author) >= 0) return;
+        add(following, followingCounts, follower, author);
+        int count = add(followers, followerCounts, author, follower);
+
+        if (outboxes[author] != null) {
+            addCelebrity(follower, author);
+        } else if (count >= celebrityFollowers) {
+            // One pass over the followers; from here on the author's activities are read, not pushed
+            outboxes[author] = new int[ringCapacity + 2];
+            int[] list = followers[author];
+            for (int i = 0; i < count; i++) addCelebrity(list[i], author);
+        }
+    }
+
+    synchronized void unfollow(String followerId, String authorId) {
+        int follower = users.find(followerId);
+        int author = users.find(authorId);
+        if (follower < 0 || author < 0 || Math.max(follower, author) >= followerCounts.length) return;
+        if (!remove(following, followingCounts, follower, author)) return;
+        remove(followers, followerCounts, author, follower);
+        // A celebrity stays one (no flapping around the threshold); the follower stops merging it
+        int[] celebrities = celebritiesFollowed[follower];
+        int c = indexOf(celebrities, celebrities == null ? 0 : celebrities.length, author);
+        if (c >= 0) {
+            int[] shorter = new int[celebrities.length - 1];
+            System.arraycopy(celebrities, 0, shorter, 0, c);
+            System.arraycopy(celebrities, c + 1, shorter, c, shorter.length - c);
+            celebritiesFollowed[follower] = shorter.length == 0 ? null : shorter;
+        }
+    }
+
+    int followerCount(String userId) {
+        int user = users.find(userId);
+        synchronized (this) {
+            return user < 0 || user >= followerCounts.length ? 0 : followerCounts[user];
+        }
+    }
+
+    boolean isCelebrity(String userId) {
+        int user = users.find(userId);
+        int[][] outboxes = this.outboxes;
+        return user >= 0 && user < outboxes.length && outboxes[user] != null;
+    }
+
+    // Returns the activity's sequence number
+    synchronized long publish(String actorId, Kind kind, String subjectId, String text, long timeMillis) {
+        int actor = users.intern(actorId);
+        ensureCapacity(actor);
+        long seq = published;
+        int slot = (int) seq & logMask;
+        logTime[slot] = timeMillis;
+        logKind[slot] = (byte) kind.ordinal();
+        logActor[slot] = actor;
+        logSubject[slot] = subjectId;
+        logText[slot] = text;
+        published = seq + 1;
+
+        int[] outbox = outboxes[actor];
+        if (outbox != null) {
+            push(outbox, seq);
+            return seq;
+        }
+        int[] list = followers[actor];
+        int[][] rings = this.rings;
+        for (int i = 0, n = followerCounts[actor]; i < n; i++) {
+            int follower = list[i];
+            int[] ring = rings[follower];
+            if (ring == null) rings[follower] = ring = new int[ringCapacity + 2];
+            push(ring, seq);
+        }
+        return seq;
+    }
+
+    // Newest first; cursor is the nextCursor of the previous page (null for the first page)
+    DareStore.Page<Activity> timeline(String userId, String cursor, int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+        long before = cursor == null ? Long.MAX_VALUE : Long.parseLong(cursor);
+        int user = users.find(userId);
+        int[][] rings = this.rings;
+        if (user < 0 || user >= rings.length) return new DareStore.Page<>(List.of(), null);
+
+        int[] celebrities = celebritiesFollowed[user];
+        int[][] outboxes = this.outboxes;
+        int sourceCount = 1 + (celebrities == null ? 0 : celebrities.length);
+        int[][] sources = new int[sourceCount][];
+        sources[0] = rings[user];
+        for (int i = 1; i < sourceCount; i++) sources[i] = outboxes[celebrities[i - 1]];
+
+        // Per source: oldest readable push index and the next push index to take
+        long head = published;
+        int[] oldest = new int[sourceCount];
+        int[] next = new int[sourceCount];
+        for (int s = 0; s < sourceCount; s++) {
+            int[] ring = sources[s];
+            if (ring == null) {
+                next[s] = -1;
+                continue;
+            }
+            int pushes = (int) INTS.getAcquire(ring, 0);
+            oldest[s] = Math.max(0, pushes - ringCapacity);
+            next[s] = lastBefore(ring, oldest[s], pushes - 1, before, head);
+        }
+
+        // Merge newest first; one extra pick tells whether there is another page
+        long[] picked = new long[limit + 1];
+        int[] pickedSource = new int[limit + 1];
+        int[] pickedIndex = new int[limit + 1];
+        int count = 0;
+        while (count <= limit) {
+            int best = -1;
+            long bestSeq = -1;
+            for (int s = 0; s < sourceCount; s++) {
+                if (next[s] < oldest[s]) continue;
+                long seq = seqAt(sources[s], next[s], head);
+                if (seq > bestSeq) {
+                    bestSeq = seq;
+                    best = s;
+                }
+            }
+            if (best < 0) break;
+            picked[count] = bestSeq;
+            pickedSource[count] = best;
+            pickedIndex[count] = next[best]--;
+            count++;
+        }
+
+        VarHandle.loadLoadFence();
+        // A writer pushing index p (the count is p or p + 1) overwrites p - capacity - 1
+        int[] firstValid = new int[sourceCount];
+        for (int s = 0; s < sourceCount; s++) {
+            if (sources[s] != null) firstValid[s] = (int) INTS.getAcquire(sources[s], 0) - ringCapacity;
+        }
+        List<Activity> items = new ArrayList<>(Math.min(count, limit));
+        for (int i = 0; i < Math.min(count, limit); i++) {
+            if (pickedIndex[i] < firstValid[pickedSource[i]]) continue;
+            Activity activity = activity(picked[i]);
+            if (activity != null) items.add(activity);
+        }
+        String nextCursor = count > limit ? Long.toString(picked[limit - 1]) : null;
+        return new DareStore.Page<>(items, nextCursor);
+    }
+
+    Activity activity(long seq) {
+        int slot = (int) seq & logMask;
+        long time = logTime[slot];
+        int kind = logKind[slot];
+        int actor = logActor[slot];
+        String subject = logSubject[slot];
+        String text = logText[slot];
+        VarHandle.loadLoadFence();
+        // Slot reused (or being rewritten) by seq + log capacity
+        if (published - seq > logMask) return null;
+        return new Activity(seq, KINDS[kind], users.name(actor), subject, text, time);
+    }
+
+    // Bytes of timeline rings and outboxes currently allocated, for capacity planning
+    synchronized long ringBytes() {
+        long bytes = 0;
+        int[][] rings = this.rings;
+        for (int i = 0; i < rings.length; i++) {
+            if (rings[i] != null) bytes += 16 + 4L * rings[i].length;
+            if (outboxes[i] != null) bytes += 16 + 4L * outboxes[i].length;
+        }
+        return bytes;
+    }
+
+    private static void push(int[] ring, long seq) {
+        int pushes = (int) INTS.getAcquire(ring, 0);
+        ring[1 + pushes % (ring.length - 1)] = (int) seq;
+        INTS.setRelease(ring, 0, pushes + 1);
+    }
+
+    // Sequence number at a push index, widened against the log head (entries are < 2^31 behind it)
+    private long seqAt(int[] ring, int index, long head) {
+        int low = ring[1 + index % (ringCapacity + 1)];
+        return head - (((int) head - low) & 0xFFFFFFFFL);
+    }
+
+    // Highest push index in [lo, hi] whose sequence number is below `before`, or lo - 1
+    private int lastBefore(int[] ring, int lo, int hi, long before, long head) {
+        if (hi < lo || seqAt(ring, hi, head) < before) return hi;
+        int result = lo - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (seqAt(ring, mid, head) < before) {
+                result = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    // Appends to an owner's list, returns the new length
+    private static int add(int[][] lists, int[] counts, int owner, int value) {
+        int[] list = lists[owner];
+        int count = counts[owner];
+        if (list == null || count == list.length) {
+            lists[owner] = list = Arrays.copyOf(list == null ? NONE : list, Math.max(4, count * 2));
+        }
+        list[count] = value;
+        return counts[owner] = count + 1;
+    }
+
+    // Order is not kept: the last entry moves into the gap
+    private static boolean remove(int[][] lists, int[] counts, int owner, int value) {
+        int[] list = lists[owner];
+        int count = counts[owner];
+        int i = indexOf(list, count, value);
+        if (i < 0) return false;
+        list[i] = list[count - 1];
+        counts[owner] = count - 1;
+        return true;
+    }
+
+    private static int indexOf(int[] list, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private void addCelebrity(int follower, int celebrity) {
+        int[] current = celebritiesFollowed[follower];
+        int[] updated = current == null ? new int[1] : Arrays.copyOf(current, current.length + 1);
+        updated[updated.length - 1] = celebrity;
+        celebritiesFollowed[follower] = updated;
+    }
+
+    private void ensureCapacity(int user) {
+        if (user < followerCounts.length) return;
+        int size = Math.max(user + 1, followerCounts.length * 2);
+        followers = Arrays.copyOf(followers, size);
+        followerCounts = Arrays.copyOf(followerCounts, size);
+        following = Arrays.copyOf(following, size);
+        followingCounts = Arrays.copyOf(followingCounts, size);
+        celebritiesFollowed = Arrays.copyOf(celebritiesFollowed, size);
+        outboxes = Arrays.copyOf(outboxes, size);
+        rings = Arrays.copyOf(rings, size);
+    }
+}
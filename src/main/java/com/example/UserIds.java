@@ -0,0 +1,46 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dictionary of user ids to dense ints, so per-user and per-pair state can live in primitive arrays.
+// Lookups are lock-free; only the first sighting of a user takes the lock.
+class UserIds {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1024];
+    private int size;
+
+    int intern(String userId) {
+        Integer id = ids.get(userId);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(userId);
+            if (id != null) return id;
+            int next = size;
+            String[] current = names;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            // The name is stored before the id is published, so name(id) never sees a gap
+            current[next] = userId;
+            names = current;
+            ids.put(userId, next);
+            size = next + 1;
+            return next;
+        }
+    }
+
+    // -1 if the user has never been interned
+    int find(String userId) {
+        Integer id = ids.get(userId);
+        return id != null ? id : -1;
+    }
+
+    String name(int id) {
+        return names[id];
+    }
+
+    int size() {
+        return ids.size();
+    }
+}
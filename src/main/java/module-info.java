@@ -1,4 +1,7 @@
 module com.example {
     requires javafx.controls;
+    requires jdk.management;
+    requires jdk.httpserver;
+    requires jdk.jfr;
     exports com.example;
 }
@@ -0,0 +1,13 @@
+// Serializes dare and achievement documents with the bundled js-bson so the Java codec can be checked
+// against it byte for byte. Reads a JSON array of documents from the file named on the command line
+// and writes their BSON back to back to stdout. "deadline" is epoch millis and becomes a Date.
+const fs = require('fs');
+const { serialize } = require('./lib/bson.cjs');
+
+const docs = JSON.parse(fs.readFileSync(process.argv[2], 'utf8'));
+const out = [];
+for (const doc of docs) {
+  if (typeof doc.deadline === 'number') doc.deadline = new Date(doc.deadline);
+  out.push(serialize(doc));
+}
+process.stdout.write(Buffer.concat(out));